@@ -0,0 +1,52 @@
+package com.financeAssitant.FinBrains.benchmarks;
+
+import com.financeAssitant.FinBrains.utility.CategoryKeywords;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Keyword extraction behind GET /api/categories/keywords, for one category's history
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CategoryKeywordsBenchmark {
+
+    private static final String[] WORDS = {"swiggy", "zomato", "grocery", "order", "dinner", "lunch", "uber", "ola",
+            "metro", "payment", "amazon", "flipkart", "electricity", "bill", "netflix", "spotify", "coffee", "the", "for"};
+
+    @Param({"100", "5000"})
+    public int descriptions;
+
+    private List<String> history;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        history = new ArrayList<>(descriptions);
+        for (int i = 0; i < descriptions; i++) {
+            history.add(WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)]
+                    + " #" + random.nextInt(10000));
+        }
+    }
+
+    @Benchmark
+    public List<String> extract() {
+        return CategoryKeywords.extract("Food & Dining", history);
+    }
+}
@@ -0,0 +1,72 @@
+package com.financeAssitant.FinBrains.benchmarks;
+
+import com.financeAssitant.FinBrains.aimlservices.dto.FinancialInsightRequest;
+import com.financeAssitant.FinBrains.aimlservices.logic.FinancialRuleAnalyzer;
+import com.financeAssitant.FinBrains.aimlservices.prompt.InsightPromptBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Rule analysis and prompt assembly for one insight request
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InsightBenchmark {
+
+    private final FinancialRuleAnalyzer analyzer = new FinancialRuleAnalyzer();
+    private final InsightPromptBuilder promptBuilder = new InsightPromptBuilder();
+    private FinancialInsightRequest request;
+    private FinancialRuleAnalyzer.Result analyzed;
+
+    @Setup
+    public void setUp() {
+        Map<String, Double> byCategory = new LinkedHashMap<>();
+        String[] names = {"Housing", "Food", "Transport", "Shopping", "Entertainment", "Dining", "Subscriptions", "Health"};
+        for (int i = 0; i < names.length; i++) byCategory.put(names[i], 1500.0 + 250 * i);
+        request = FinancialInsightRequest.builder()
+                .monthlyIncome(85000.0)
+                .monthlySavings(12000.0)
+                .monthlyExpensesByCategory(byCategory)
+                .investments(List.of(
+                        new FinancialInsightRequest.Investment("Mutual Fund", 5000.0),
+                        new FinancialInsightRequest.Investment("Stocks", 2500.0)))
+                .liabilities(List.of(
+                        new FinancialInsightRequest.Liability("Home Loan", 22000.0),
+                        new FinancialInsightRequest.Liability("Credit Card", 4000.0)))
+                .goals(new FinancialInsightRequest.Goals(List.of("Vacation", "New laptop"), List.of("Retirement", "House")))
+                .emergencyFundBalance(60000.0)
+                .build();
+        analyzed = analyzer.analyze(request);
+    }
+
+    @Benchmark
+    public FinancialRuleAnalyzer.Result analyze() {
+        return analyzer.analyze(request);
+    }
+
+    @Benchmark
+    public String buildPrompt() {
+        return promptBuilder.buildPrompt(request, analyzed.metrics, analyzed.flags);
+    }
+
+    @Benchmark
+    public String analyzeAndBuildPrompt() {
+        FinancialRuleAnalyzer.Result result = analyzer.analyze(request);
+        return promptBuilder.buildPrompt(request, result.metrics, result.flags);
+    }
+}
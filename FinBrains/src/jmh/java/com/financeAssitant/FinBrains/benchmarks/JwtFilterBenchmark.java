@@ -0,0 +1,83 @@
+package com.financeAssitant.FinBrains.benchmarks;
+
+import com.financeAssitant.FinBrains.filter.JwtAuthenticationFilter;
+import com.financeAssitant.FinBrains.utility.JwtUtils;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+// Cost of authenticating one request: the full filter, the token parse on its own, and signing.
+// legacyParseTwice reproduces the old path (key derivation + two verifications) as a baseline.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtFilterBenchmark {
+
+    private static final String SECRET = "mySecretKey123456789012345678901234567890";
+
+    @Param({"true", "false"})
+    public boolean cacheEnabled;
+
+    private JwtUtils jwtUtils;
+    private JwtAuthenticationFilter filter;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtUtils = new JwtUtils(SECRET, 86400000, 1209600000L, cacheEnabled, 10000);
+        filter = new JwtAuthenticationFilter();
+        ReflectionTestUtils.setField(filter, "jwtUtils", jwtUtils);
+        token = jwtUtils.generateJwtToken("64f1c2a9e4b0a1b2c3d4e5f6", "bench@example.com");
+    }
+
+    @Benchmark
+    public Object filterPath() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/expenses");
+        request.addHeader("Authorization", "Bearer " + token);
+        try {
+            filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+            return request.getAttribute("User-ID");
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    @Benchmark
+    public String sign() {
+        return jwtUtils.generateJwtToken("64f1c2a9e4b0a1b2c3d4e5f6", "bench@example.com");
+    }
+
+    @Benchmark
+    public String parseClaims() {
+        return jwtUtils.parseClaims(token).getSubject();
+    }
+
+    @Benchmark
+    public String legacyParseTwice() {
+        String userId = Jwts.parser().verifyWith(Keys.hmacShaKeyFor(SECRET.getBytes())).build()
+                .parseSignedClaims(token).getPayload().getSubject();
+        Jwts.parser().verifyWith(Keys.hmacShaKeyFor(SECRET.getBytes())).build()
+                .parseSignedClaims(token);
+        return userId;
+    }
+}
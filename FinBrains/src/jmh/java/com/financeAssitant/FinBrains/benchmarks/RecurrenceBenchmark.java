@@ -0,0 +1,70 @@
+package com.financeAssitant.FinBrains.benchmarks;
+
+import com.financeAssitant.FinBrains.entity.Expense;
+import com.financeAssitant.FinBrains.utility.RecurrenceSchedule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Recurrence computation: next due date for schedules anchored years back, and a year of upcoming occurrences
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RecurrenceBenchmark {
+
+    private RecurrenceSchedule daily;
+    private RecurrenceSchedule monthly;
+    private RecurrenceSchedule lastFriday;
+    private LocalDateTime now;
+
+    @Setup
+    public void setUp() {
+        LocalDate anchor = LocalDate.now().minusYears(10);
+        daily = schedule(Expense.Recurring.builder().frequency("DAILY").startDate(anchor).build());
+        // Anchored on the 31st so most months go through end-of-month clamping
+        monthly = schedule(Expense.Recurring.builder().frequency("MONTHLY")
+                .startDate(LocalDate.of(anchor.getYear(), 1, 31)).build());
+        lastFriday = schedule(Expense.Recurring.builder().frequency("CUSTOM").weekOfMonth(-1).dayOfWeek("FRIDAY")
+                .timezone("America/New_York").startDate(anchor).build());
+        now = LocalDateTime.now();
+    }
+
+    @Benchmark
+    public LocalDateTime dailyNext() {
+        return daily.nextOnOrAfter(now);
+    }
+
+    @Benchmark
+    public LocalDateTime monthlyNext() {
+        return monthly.nextOnOrAfter(now);
+    }
+
+    @Benchmark
+    public LocalDateTime nthWeekdayNext() {
+        return lastFriday.nextOnOrAfter(now);
+    }
+
+    @Benchmark
+    public List<LocalDateTime> monthlyUpcomingYear() {
+        return monthly.upcoming(now, now.plusYears(1), 500);
+    }
+
+    private static RecurrenceSchedule schedule(Expense.Recurring recurring) {
+        return RecurrenceSchedule.of(recurring, null);
+    }
+}
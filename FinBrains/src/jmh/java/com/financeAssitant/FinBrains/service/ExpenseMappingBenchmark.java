@@ -0,0 +1,86 @@
+package com.financeAssitant.FinBrains.service;
+
+import com.financeAssitant.FinBrains.entity.Category;
+import com.financeAssitant.FinBrains.entity.Expense;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// ExpenseService.convertToResponse over one 100-row page, with embedded category snapshots and with
+// categories coming from the per-page lookup map (pre-snapshot rows)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExpenseMappingBenchmark {
+
+    private static final int PAGE = 100;
+
+    private final ExpenseService expenseService = new ExpenseService();
+    private final List<Expense> withSnapshot = new ArrayList<>();
+    private final List<Expense> withoutSnapshot = new ArrayList<>();
+    private final Map<String, Category> categories = new HashMap<>();
+
+    @Setup
+    public void setUp() {
+        for (int c = 0; c < 8; c++) {
+            Category category = Category.builder().id("cat" + c).name("Category " + c).userId("u1").build();
+            categories.put(category.getId(), category);
+        }
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < PAGE; i++) {
+            Category category = categories.get("cat" + (i % 8));
+            withSnapshot.add(expense(i, category, Expense.CategoryRef.of(category), now.minusDays(i)));
+            withoutSnapshot.add(expense(i, category, null, now.minusDays(i)));
+        }
+    }
+
+    @Benchmark
+    public void snapshotPage(Blackhole bh) {
+        for (Expense e : withSnapshot) bh.consume(expenseService.convertToResponse(e, Map.of()));
+    }
+
+    @Benchmark
+    public void lookupPage(Blackhole bh) {
+        for (Expense e : withoutSnapshot) bh.consume(expenseService.convertToResponse(e, categories));
+    }
+
+    private static Expense expense(int i, Category category, Expense.CategoryRef ref, LocalDateTime date) {
+        return Expense.builder()
+                .id("e" + i)
+                .userId("u1")
+                .amount(10.0 + i)
+                .description("Grocery order #" + i)
+                .category(category)
+                .categoryRef(ref)
+                .date(date)
+                .tags(List.of("food", "weekly"))
+                .paymentMethod(Expense.PaymentMethod.builder().type("card").provider("Bank").lastFourDigits("4242").build())
+                .recurring(Expense.Recurring.builder()
+                        .isRecurring(i % 10 == 0)
+                        .frequency("MONTHLY")
+                        .startDate(LocalDate.now().minusMonths(6))
+                        .nextDue(date.plusMonths(1))
+                        .build())
+                .metadata(new Expense.Metadata())
+                .build();
+    }
+}
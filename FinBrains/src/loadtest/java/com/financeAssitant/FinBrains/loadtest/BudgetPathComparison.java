@@ -0,0 +1,69 @@
+package com.financeAssitant.FinBrains.loadtest;
+
+import com.financeAssitant.FinBrains.config.MongoCommandBudget;
+import com.financeAssitant.FinBrains.repository.ExpenseRepository;
+import com.financeAssitant.FinBrains.service.MonthlyRollupService;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+// Before/after for the budget status and breakdown reads, one call at a time per user for the current month:
+// documents = every expense of the month loaded into the JVM (app.budget.aggregation.enabled=false),
+// aggregation = the $match/$group totals, rollup = the materialized monthly rollup (the default).
+// Reply bytes come from finbrains.mongo.reply.bytes, so nothing else may run against Mongo meanwhile.
+class BudgetPathComparison {
+
+    private final Map<String, Consumer<String>> paths = new LinkedHashMap<>();
+    private final MeterRegistry registry;
+
+    BudgetPathComparison(ExpenseRepository expenseRepository, MonthlyRollupService monthlyRollupService,
+                         MeterRegistry registry) {
+        this.registry = registry;
+        YearMonth ym = YearMonth.now();
+        LocalDateTime start = ym.atDay(1).atStartOfDay();
+        LocalDateTime end = ym.atEndOfMonth().atTime(23, 59, 59);
+        paths.put("budget.documents", userId -> expenseRepository.findByUserIdAndCurrentMonth(userId, start, end));
+        paths.put("budget.aggregation", userId -> expenseRepository.sumByMonthTypeAndCategory(userId, start, end));
+        paths.put("budget.rollup", userId -> monthlyRollupService.get(userId, ym));
+    }
+
+    // One unmeasured pass (which also materializes the rollups), then rounds measured passes over every user
+    Map<String, Result> run(List<String> userIds, int rounds) {
+        Map<String, Result> results = new LinkedHashMap<>();
+        paths.forEach((name, path) -> {
+            userIds.forEach(path);
+            LatencyRecorder latency = new LatencyRecorder();
+            long documents = 0;
+            double bytesBefore = replyBytes();
+            long started = System.nanoTime();
+            for (int r = 0; r < rounds; r++) {
+                for (String userId : userIds) {
+                    long start = System.nanoTime();
+                    documents += MongoCommandBudget.measure(() -> path.accept(userId)).documents();
+                    latency.record(System.nanoTime() - start, true);
+                }
+            }
+            double seconds = (System.nanoTime() - started) / 1e9;
+            long calls = (long) rounds * userIds.size();
+            results.put(name, new Result(latency.summarize(seconds),
+                    calls > 0 ? (double) documents / calls : 0,
+                    calls > 0 ? (replyBytes() - bytesBefore) / calls : 0));
+        });
+        return results;
+    }
+
+    private double replyBytes() {
+        return registry.find("finbrains.mongo.reply.bytes").summaries().stream()
+                .mapToDouble(DistributionSummary::totalAmount)
+                .sum();
+    }
+
+    record Result(LatencyRecorder.Summary latency, double documentsPerCall, double bytesPerCall) {
+    }
+}
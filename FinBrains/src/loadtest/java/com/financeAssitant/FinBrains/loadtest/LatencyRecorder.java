@@ -0,0 +1,40 @@
+package com.financeAssitant.FinBrains.loadtest;
+
+import java.util.Arrays;
+
+// Every latency sample of one endpoint, kept in full so percentiles are exact
+class LatencyRecorder {
+
+    private long[] samples = new long[1024];
+    private int count;
+    private long errors;
+
+    synchronized void record(long nanos, boolean ok) {
+        if (count == samples.length) samples = Arrays.copyOf(samples, count * 2);
+        samples[count++] = nanos;
+        if (!ok) errors++;
+    }
+
+    synchronized void reset() {
+        count = 0;
+        errors = 0;
+    }
+
+    synchronized Summary summarize(double seconds) {
+        long[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+        return new Summary(count, errors, seconds > 0 ? count / seconds : 0,
+                millis(sorted, 0.50), millis(sorted, 0.90), millis(sorted, 0.99),
+                count > 0 ? sorted[count - 1] / 1e6 : 0);
+    }
+
+    // Nearest-rank percentile, in milliseconds
+    private static double millis(long[] sorted, double p) {
+        if (sorted.length == 0) return 0;
+        int rank = (int) Math.ceil(p * sorted.length);
+        return sorted[Math.max(0, rank - 1)] / 1e6;
+    }
+
+    record Summary(long requests, long errors, double throughput, double p50, double p90, double p99, double max) {
+    }
+}
@@ -0,0 +1,118 @@
+package com.financeAssitant.FinBrains.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Closed-loop load: each worker picks a random user and a weighted endpoint, waits for the response, repeats.
+// Close it when done: the HTTP client's threads are not daemons and would keep the JVM alive.
+class LoadDriver implements AutoCloseable {
+
+    private record Endpoint(String name, String path, int weight) {
+    }
+
+    private final ExecutorService clientExecutor;
+    private final HttpClient client;
+    private final String baseUrl;
+    private final List<String> tokens;
+    private final List<Endpoint> endpoints = new ArrayList<>();
+    private final Map<String, LatencyRecorder> recorders = new LinkedHashMap<>();
+    private final int totalWeight;
+
+    LoadDriver(String baseUrl, List<String> tokens, int concurrency) {
+        this.baseUrl = baseUrl;
+        this.tokens = tokens;
+        this.clientExecutor = Executors.newFixedThreadPool(Math.max(2, concurrency / 4));
+        this.client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(clientExecutor)
+                .build();
+        YearMonth now = YearMonth.now();
+        // Weights roughly follow a dashboard session: listing and summaries dominate
+        add("expenses.list", "/api/expenses?size=20", 30);
+        add("expenses.filter", "/api/expenses/filter?searchTerm=order&size=20", 10);
+        add("categories.list", "/api/categories", 15);
+        add("budget.status", "/api/budget/status", 15);
+        add("budget.history", "/api/budget/history?from=" + now.minusMonths(11) + "&to=" + now, 5);
+        add("budget.breakdown", "/api/budget/breakdown?month=" + now, 10);
+        add("users.monthlySummary", "/api/users/me/monthly-summary", 15);
+        this.totalWeight = endpoints.stream().mapToInt(Endpoint::weight).sum();
+    }
+
+    private void add(String name, String path, int weight) {
+        endpoints.add(new Endpoint(name, path, weight));
+        recorders.put(name, new LatencyRecorder());
+    }
+
+    // Runs concurrency workers for the given time; returns the wall-clock seconds actually spent
+    double run(int concurrency, Duration duration) throws InterruptedException {
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+        long started = System.nanoTime();
+        long deadline = started + duration.toNanos();
+        for (int i = 0; i < concurrency; i++) {
+            workers.submit(() -> {
+                while (System.nanoTime() < deadline && !Thread.currentThread().isInterrupted()) {
+                    call(pick(), tokens.get(ThreadLocalRandom.current().nextInt(tokens.size())));
+                }
+            });
+        }
+        workers.shutdown();
+        if (!workers.awaitTermination(duration.toSeconds() + 60, TimeUnit.SECONDS)) workers.shutdownNow();
+        return (System.nanoTime() - started) / 1e9;
+    }
+
+    @Override
+    public void close() {
+        clientExecutor.shutdownNow();
+    }
+
+    void reset() {
+        recorders.values().forEach(LatencyRecorder::reset);
+    }
+
+    Map<String, LatencyRecorder.Summary> summarize(double seconds) {
+        Map<String, LatencyRecorder.Summary> out = new LinkedHashMap<>();
+        recorders.forEach((name, recorder) -> out.put(name, recorder.summarize(seconds)));
+        return out;
+    }
+
+    private Endpoint pick() {
+        int r = ThreadLocalRandom.current().nextInt(totalWeight);
+        for (Endpoint e : endpoints) {
+            r -= e.weight();
+            if (r < 0) return e;
+        }
+        return endpoints.get(endpoints.size() - 1);
+    }
+
+    private void call(Endpoint endpoint, String token) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + endpoint.path()))
+                .header("Authorization", "Bearer " + token)
+                .timeout(Duration.ofSeconds(30))
+                .GET()
+                .build();
+        long start = System.nanoTime();
+        boolean ok;
+        try {
+            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+            ok = response.statusCode() / 100 == 2;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        } catch (Exception e) {
+            ok = false;
+        }
+        recorders.get(endpoint.name()).record(System.nanoTime() - start, ok);
+    }
+}
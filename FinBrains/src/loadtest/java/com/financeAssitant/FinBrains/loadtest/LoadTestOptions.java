@@ -0,0 +1,66 @@
+package com.financeAssitant.FinBrains.loadtest;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+// Command line options, given as --name=value
+record LoadTestOptions(int users,
+                       int expensesPerMonth,
+                       int years,
+                       double recurringRatio,
+                       int concurrency,
+                       Duration warmup,
+                       Duration duration,
+                       int budgetRounds, // measured passes of BudgetPathComparison, 0 to skip it
+                       String threads, // platform or virtual: how the application handles requests
+                       int mongoMaxConcurrency,
+                       String mongoUri, // null: start an embedded mongod
+                       String database,
+                       String result) {
+
+    static LoadTestOptions parse(String[] args) {
+        Map<String, String> opts = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value, got: " + arg);
+            }
+            int eq = arg.indexOf('=');
+            opts.put(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+        LoadTestOptions options = new LoadTestOptions(
+                Integer.parseInt(opts.getOrDefault("users", "50")),
+                Integer.parseInt(opts.getOrDefault("expenses-per-month", "60")),
+                Integer.parseInt(opts.getOrDefault("years", "2")),
+                Double.parseDouble(opts.getOrDefault("recurring-ratio", "0.05")),
+                Integer.parseInt(opts.getOrDefault("concurrency", "16")),
+                Duration.ofSeconds(Long.parseLong(opts.getOrDefault("warmup", "10"))),
+                Duration.ofSeconds(Long.parseLong(opts.getOrDefault("duration", "60"))),
+                Integer.parseInt(opts.getOrDefault("budget-rounds", "5")),
+                opts.getOrDefault("threads", "platform"),
+                Integer.parseInt(opts.getOrDefault("mongo-max-concurrency", "100")),
+                opts.get("mongo-uri"),
+                opts.getOrDefault("database", "finbrains_loadtest"),
+                opts.getOrDefault("result", "target/loadtest-result.json"));
+        if (options.users < 1 || options.concurrency < 1 || options.years < 1 || options.expensesPerMonth < 0) {
+            throw new IllegalArgumentException("users, concurrency and years must be positive");
+        }
+        if (options.budgetRounds < 0) {
+            throw new IllegalArgumentException("budget-rounds must not be negative");
+        }
+        if (options.recurringRatio < 0 || options.recurringRatio > 1) {
+            throw new IllegalArgumentException("recurring-ratio must be between 0 and 1");
+        }
+        if (!options.threads.equals("platform") && !options.threads.equals("virtual")) {
+            throw new IllegalArgumentException("threads must be platform or virtual");
+        }
+        if (options.virtualThreads() && Runtime.version().feature() < 21) {
+            throw new IllegalArgumentException("threads=virtual needs Java 21 (build with -Pjava21)");
+        }
+        return options;
+    }
+
+    boolean virtualThreads() {
+        return threads.equals("virtual");
+    }
+}
@@ -0,0 +1,147 @@
+package com.financeAssitant.FinBrains.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.financeAssitant.FinBrains.FinBrainsApplication;
+import com.financeAssitant.FinBrains.repository.ExpenseRepository;
+import com.financeAssitant.FinBrains.repository.UserRepository;
+import com.financeAssitant.FinBrains.service.BudgetService;
+import com.financeAssitant.FinBrains.service.CategoryService;
+import com.financeAssitant.FinBrains.service.MonthlyRollupService;
+import com.financeAssitant.FinBrains.utility.JwtUtils;
+import de.flapdoodle.embed.mongo.commands.ServerAddress;
+import de.flapdoodle.embed.mongo.distribution.Version;
+import de.flapdoodle.embed.mongo.transitions.Mongod;
+import de.flapdoodle.embed.mongo.transitions.RunningMongodProcess;
+import de.flapdoodle.reverse.TransitionWalker;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// End-to-end load test: boots the application against an embedded (or given local) MongoDB, seeds a synthetic
+// population and drives the read endpoints with real JWTs, reporting p50/p90/p99 and throughput per endpoint.
+//
+//   mvn -Ploadtest test-compile exec:exec -Dloadtest.args="--users=200 --expenses-per-month=80 --years=3"
+//
+// Options: users, expenses-per-month, years, recurring-ratio, concurrency, warmup, duration (seconds),
+// budget-rounds (BudgetPathComparison passes before the load, 0 to skip), threads (platform or virtual request handling), mongo-max-concurrency, mongo-uri (defaults to an embedded
+// mongod), database, result (JSON output path).
+//
+// Platform vs virtual threads: run the same options twice with a concurrency above Tomcat's 200 threads and
+// compare the two result files, e.g.
+//   mvn -Pjava21,loadtest test-compile exec:exec -Dloadtest.args="--concurrency=400 --threads=virtual --result=target/virtual.json"
+public class LoadTestRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(LoadTestRunner.class);
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        if (options.mongoUri() != null) {
+            run(options, options.mongoUri());
+            return;
+        }
+        try (TransitionWalker.ReachedState<RunningMongodProcess> mongod = Mongod.instance().start(Version.Main.V7_0)) {
+            ServerAddress address = mongod.current().getServerAddress();
+            run(options, "mongodb://" + address.getHost() + ":" + address.getPort());
+        }
+    }
+
+    private static void run(LoadTestOptions options, String mongoUri) throws Exception {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(FinBrainsApplication.class)
+                .properties(FinBrainsApplication.defaultProperties())
+                .properties(
+                        "server.port=0",
+                        "management.server.port=0",
+                        "spring.data.mongodb.uri=" + mongoUri,
+                        // Always a dedicated database, even when pointed at a shared server
+                        "spring.data.mongodb.database=" + options.database(),
+                        "app.recurring.cron=-",
+                        "spring.threads.virtual.enabled=" + options.virtualThreads(),
+                        "app.mongo.max-concurrency=" + options.mongoMaxConcurrency(),
+                        "logging.level.root=WARN",
+                        "logging.level.com.financeAssitant.FinBrains.loadtest=INFO")
+                .run();
+        try {
+            PopulationSeeder seeder = new PopulationSeeder(
+                    context.getBean(UserRepository.class),
+                    context.getBean(ExpenseRepository.class),
+                    context.getBean(CategoryService.class),
+                    context.getBean(BudgetService.class));
+            List<String> userIds = seeder.seed(options);
+
+            // Runs alone, before the load, so the reply bytes it reads are its own
+            Map<String, BudgetPathComparison.Result> budgetPaths = Map.of();
+            if (options.budgetRounds() > 0) {
+                log.info("Comparing budget read paths over {} users x {} rounds", userIds.size(), options.budgetRounds());
+                budgetPaths = new BudgetPathComparison(
+                        context.getBean(ExpenseRepository.class),
+                        context.getBean(MonthlyRollupService.class),
+                        context.getBean(MeterRegistry.class)).run(userIds, options.budgetRounds());
+            }
+
+            JwtUtils jwtUtils = context.getBean(JwtUtils.class);
+            List<String> tokens = new ArrayList<>();
+            for (int i = 0; i < userIds.size(); i++) {
+                tokens.add(jwtUtils.generateJwtToken(userIds.get(i), PopulationSeeder.email(i)));
+            }
+
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            try (LoadDriver driver = new LoadDriver("http://localhost:" + port, tokens, options.concurrency())) {
+                log.info("Warming up for {}s with {} workers against {} threads", options.warmup().toSeconds(),
+                        options.concurrency(), options.threads());
+                driver.run(options.concurrency(), options.warmup());
+                driver.reset();
+                log.info("Measuring for {}s", options.duration().toSeconds());
+                double seconds = driver.run(options.concurrency(), options.duration());
+
+                Map<String, LatencyRecorder.Summary> results = driver.summarize(seconds);
+                print(results);
+                printBudgetPaths(budgetPaths);
+                write(options, seconds, results, budgetPaths);
+            }
+        } finally {
+            context.close();
+        }
+    }
+
+    private static void print(Map<String, LatencyRecorder.Summary> results) {
+        System.out.printf("%n%-22s %9s %7s %9s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "max ms");
+        results.forEach((name, s) -> System.out.printf("%-22s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f%n",
+                name, s.requests(), s.errors(), s.throughput(), s.p50(), s.p90(), s.p99(), s.max()));
+    }
+
+    private static void printBudgetPaths(Map<String, BudgetPathComparison.Result> paths) {
+        if (paths.isEmpty()) return;
+        System.out.printf("%n%-22s %9s %9s %9s %9s %11s %13s%n",
+                "budget path", "calls", "p50 ms", "p90 ms", "p99 ms", "docs/call", "bytes/call");
+        paths.forEach((name, r) -> System.out.printf("%-22s %9d %9.2f %9.2f %9.2f %11.1f %13.0f%n",
+                name, r.latency().requests(), r.latency().p50(), r.latency().p90(), r.latency().p99(),
+                r.documentsPerCall(), r.bytesPerCall()));
+    }
+
+    private static void write(LoadTestOptions options, double seconds, Map<String, LatencyRecorder.Summary> results,
+                              Map<String, BudgetPathComparison.Result> budgetPaths) throws Exception {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("options", options);
+        report.put("seconds", seconds);
+        report.put("endpoints", results);
+        report.put("budgetPaths", budgetPaths);
+        File out = new File(options.result());
+        if (out.getParentFile() != null) out.getParentFile().mkdirs();
+        new ObjectMapper().findAndRegisterModules()
+                .disable(SerializationFeature.WRITE_DURATIONS_AS_TIMESTAMPS)
+                .writerWithDefaultPrettyPrinter()
+                .writeValue(out, report);
+        log.info("Results written to {}", out.getAbsolutePath());
+    }
+}
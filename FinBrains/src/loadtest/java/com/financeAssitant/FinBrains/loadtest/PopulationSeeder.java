@@ -0,0 +1,136 @@
+package com.financeAssitant.FinBrains.loadtest;
+
+import com.financeAssitant.FinBrains.entity.Category;
+import com.financeAssitant.FinBrains.entity.Expense;
+import com.financeAssitant.FinBrains.entity.User;
+import com.financeAssitant.FinBrains.repository.ExpenseRepository;
+import com.financeAssitant.FinBrains.repository.UserRepository;
+import com.financeAssitant.FinBrains.service.BudgetService;
+import com.financeAssitant.FinBrains.service.CategoryService;
+import com.financeAssitant.FinBrains.utility.RecurrenceSchedule;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// Synthetic users with users x expensesPerMonth x years of history, written through the real repositories
+// (so entity callbacks fill search keys and category snapshots exactly as in production). Monthly rollups and
+// balances are not written here; they are materialized on first read, during the warmup.
+class PopulationSeeder {
+
+    private static final Logger log = LoggerFactory.getLogger(PopulationSeeder.class);
+    private static final int BATCH = 1000;
+    private static final String[] MERCHANTS = {"Swiggy", "Zomato", "BigBasket", "Uber", "Ola", "Amazon", "Flipkart",
+            "Metro card", "Electricity", "Netflix", "Spotify", "Starbucks", "Pharmacy", "Petrol", "Gym"};
+
+    private final UserRepository userRepository;
+    private final ExpenseRepository expenseRepository;
+    private final CategoryService categoryService;
+    private final BudgetService budgetService;
+    private final Random random = new Random(42);
+
+    PopulationSeeder(UserRepository userRepository, ExpenseRepository expenseRepository,
+                     CategoryService categoryService, BudgetService budgetService) {
+        this.userRepository = userRepository;
+        this.expenseRepository = expenseRepository;
+        this.categoryService = categoryService;
+        this.budgetService = budgetService;
+    }
+
+    static String email(int i) {
+        return "loadtest-" + i + "@example.com";
+    }
+
+    // Returns the user ids; a population left by an earlier run against the same database is reused as is
+    List<String> seed(LoadTestOptions options) {
+        List<String> userIds = new ArrayList<>();
+        long expenses = 0;
+        long started = System.nanoTime();
+        for (int i = 0; i < options.users(); i++) {
+            User existing = userRepository.findByEmail(email(i)).orElse(null);
+            if (existing != null) {
+                userIds.add(existing.getId());
+                continue;
+            }
+            User user = new User(email(i), "not-a-login");
+            user.getProfile().setFirstName("Load");
+            user.getProfile().setLastName("User " + i);
+            user = userRepository.save(user);
+            categoryService.seedDefaults(user.getId());
+            budgetService.setOrUpdateBudget(user.getId(), 40000.0 + random.nextInt(20000), YearMonth.now());
+            expenses += seedExpenses(user.getId(), options);
+            userIds.add(user.getId());
+        }
+        log.info("Population ready: {} users, {} new expenses in {} ms", userIds.size(), expenses,
+                (System.nanoTime() - started) / 1_000_000);
+        return userIds;
+    }
+
+    private long seedExpenses(String userId, LoadTestOptions options) {
+        List<Category> categories = categoryService.getAll(userId);
+        Category income = categories.stream().filter(c -> "Monthly Income".equals(c.getName())).findFirst().orElse(null);
+        List<Category> spending = categories.stream().filter(c -> c != income).toList();
+
+        List<Expense> batch = new ArrayList<>(BATCH);
+        long written = 0;
+        YearMonth current = YearMonth.now();
+        for (int m = options.years() * 12 - 1; m >= 0; m--) {
+            YearMonth ym = current.minusMonths(m);
+            batch.add(expense(userId, income, "Salary", 85000.0, Expense.ExpenseType.INCOME, ym.atDay(1).atTime(9, 0)));
+            for (int e = 0; e < options.expensesPerMonth(); e++) {
+                Category category = spending.isEmpty() ? null : spending.get(random.nextInt(spending.size()));
+                LocalDateTime date = ym.atDay(1 + random.nextInt(ym.lengthOfMonth()))
+                        .atTime(random.nextInt(24), random.nextInt(60));
+                Expense expense = expense(userId, category, MERCHANTS[random.nextInt(MERCHANTS.length)] + " order",
+                        Math.round((50 + random.nextDouble() * 3000) * 100) / 100.0, Expense.ExpenseType.EXPENSE, date);
+                if (random.nextDouble() < options.recurringRatio()) makeRecurring(expense);
+                batch.add(expense);
+                if (batch.size() >= BATCH) {
+                    written += flush(batch);
+                }
+            }
+        }
+        return written + flush(batch);
+    }
+
+    private long flush(List<Expense> batch) {
+        if (batch.isEmpty()) return 0;
+        expenseRepository.saveAll(batch);
+        int n = batch.size();
+        batch.clear();
+        return n;
+    }
+
+    // Monthly template anchored on the expense date; nextDue is from today on, so nothing is due at startup
+    private void makeRecurring(Expense expense) {
+        Expense.Recurring recurring = Expense.Recurring.builder()
+                .isRecurring(true)
+                .frequency("MONTHLY")
+                .startDate(expense.getDate().toLocalDate())
+                .build();
+        RecurrenceSchedule schedule = RecurrenceSchedule.of(recurring, expense.getDate());
+        recurring.setNextDue(schedule.nextOnOrAfter(LocalDate.now().atStartOfDay()));
+        expense.setRecurring(recurring);
+    }
+
+    private Expense expense(String userId, Category category, String description, double amount,
+                            Expense.ExpenseType type, LocalDateTime date) {
+        return Expense.builder()
+                .userId(userId)
+                .amount(amount)
+                .type(type)
+                .description(description)
+                .category(category)
+                .date(date)
+                .tags(List.of(type == Expense.ExpenseType.INCOME ? "income" : "loadtest"))
+                .paymentMethod(Expense.PaymentMethod.builder().type(random.nextBoolean() ? "card" : "upi").build())
+                .recurring(Expense.Recurring.builder().isRecurring(false).build())
+                .metadata(new Expense.Metadata())
+                .build();
+    }
+}
@@ -2,14 +2,39 @@ package com.financeAssitant.FinBrains;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.annotation.EnableScheduling;
 
+import java.util.Map;
+
 @SpringBootApplication
 @EnableScheduling
+@EnableAsync
 public class FinBrainsApplication {
 
     public static void main(String[] args) {
-        SpringApplication.run(FinBrainsApplication.class, args);
+        SpringApplication app = new SpringApplication(FinBrainsApplication.class);
+        app.setDefaultProperties(defaultProperties());
+        app.run(args);
     }
 
+    // Lowest-precedence defaults; anything in application.properties or the environment overrides them
+    public static Map<String, Object> defaultProperties() {
+        return Map.ofEntries(
+                Map.entry("management.endpoints.web.exposure.include", "health,info,metrics,prometheus"),
+                // Actuator (metrics, prometheus) is served on its own port, bound to loopback: scrapers run
+                // on the host or a sidecar, and nothing of it is reachable on the public application port
+                Map.entry("management.server.port", "8081"),
+                Map.entry("management.server.address", "127.0.0.1"),
+                Map.entry("management.observations.annotations.enabled", "true"),
+                Map.entry("management.metrics.tags.application", "finbrains"),
+                Map.entry("management.metrics.distribution.percentiles-histogram.http.server.requests", "true"),
+                Map.entry("management.metrics.distribution.percentiles-histogram.finbrains.service", "true"),
+                Map.entry("management.metrics.distribution.percentiles-histogram.finbrains.repository", "true"),
+                // Statement imports are spooled to disk, not held in memory
+                Map.entry("spring.servlet.multipart.max-file-size", "100MB"),
+                Map.entry("spring.servlet.multipart.max-request-size", "100MB"),
+                // Streamed exports outlive the container's 30s default for async requests
+                Map.entry("spring.mvc.async.request-timeout", "30m"));
+    }
 }
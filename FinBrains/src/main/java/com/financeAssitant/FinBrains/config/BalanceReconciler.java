@@ -0,0 +1,40 @@
+package com.financeAssitant.FinBrains.config;
+
+import com.financeAssitant.FinBrains.entity.User;
+import com.financeAssitant.FinBrains.repository.UserRepository;
+import com.financeAssitant.FinBrains.service.BalanceService;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+// Run with --reconcile-balances to rebuild every user's running balance from history at startup
+@Component
+@RequiredArgsConstructor
+public class BalanceReconciler implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(BalanceReconciler.class);
+
+    private final UserRepository userRepository;
+    private final BalanceService balanceService;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!args.containsOption("reconcile-balances")) return;
+        int page = 0;
+        long done = 0;
+        Page<User> users;
+        do {
+            users = userRepository.findAll(PageRequest.of(page++, 200));
+            for (User u : users) {
+                balanceService.reconcile(u.getId());
+                done++;
+            }
+        } while (users.hasNext());
+        log.info("Reconciled balances for {} users", done);
+    }
+}
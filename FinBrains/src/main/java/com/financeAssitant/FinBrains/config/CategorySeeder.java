@@ -1,14 +1,65 @@
 package com.financeAssitant.FinBrains.config;
 
+import com.financeAssitant.FinBrains.entity.JobCheckpoint;
+import com.financeAssitant.FinBrains.entity.User;
+import com.financeAssitant.FinBrains.repository.JobCheckpointRepository;
+import com.financeAssitant.FinBrains.service.CategoryService;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.boot.ApplicationArguments;
 import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+
+// One-shot migration: seeds default categories for users created before signup seeding, in _id order and in
+// batches. Progress is checkpointed, and once it has finished later startups only read the checkpoint.
 @Component
+@RequiredArgsConstructor
 public class CategorySeeder implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(CategorySeeder.class);
+    static final String JOB = "migration:category-seeding";
+    private static final int BATCH = 200;
+
+    private final MongoTemplate mongoTemplate;
+    private final CategoryService categoryService;
+    private final JobCheckpointRepository checkpointRepository;
+
     @Override
     public void run(ApplicationArguments args) {
-        // No global seeding. Predefined categories are seeded per-user
-        // on first GET /api/categories via CategoryService.getAll(userId).
+        JobCheckpoint checkpoint = checkpointRepository.findById(JOB).orElse(null);
+        if (checkpoint != null && checkpoint.getStatus() == JobCheckpoint.Status.DONE) return;
+        if (checkpoint == null) checkpoint = JobCheckpoint.start(JOB);
+        String lastId = checkpoint.getLastId();
+        long seeded = 0;
+        boolean failed = false;
+        while (true) {
+            Criteria criteria = Criteria.where("metadata.categoriesSeeded").ne(true);
+            if (lastId != null) criteria.and("_id").gt(lastId);
+            Query query = Query.query(criteria).with(Sort.by("_id")).limit(BATCH);
+            query.fields().include("_id");
+            List<User> batch = mongoTemplate.find(query, User.class);
+            if (batch.isEmpty()) break;
+            for (User u : batch) {
+                try {
+                    categoryService.seedDefaults(u.getId());
+                    seeded++;
+                } catch (RuntimeException e) {
+                    log.warn("Category seeding failed for user {}: {}", u.getId(), e.getMessage());
+                    failed = true;
+                }
+            }
+            lastId = batch.get(batch.size() - 1).getId();
+            // Past a failure the position stays put, so the next startup retries from there
+            if (!failed) checkpointRepository.save(checkpoint.advance(lastId, batch.size()));
+        }
+        if (!failed) checkpointRepository.save(checkpoint.done());
+        if (seeded > 0) log.info("Seeded default categories for {} users", seeded);
     }
 }
@@ -0,0 +1,89 @@
+package com.financeAssitant.FinBrains.config;
+
+import com.financeAssitant.FinBrains.entity.Category;
+import com.financeAssitant.FinBrains.entity.Expense;
+import com.financeAssitant.FinBrains.entity.JobCheckpoint;
+import com.financeAssitant.FinBrains.repository.JobCheckpointRepository;
+import com.mongodb.DBRef;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// One-shot migration: adds the embedded category snapshot to expenses written before it existed, in _id order and
+// in batches. Progress is checkpointed, and once it has finished later startups only read the checkpoint.
+@Component
+@RequiredArgsConstructor
+public class CategorySnapshotBackfill implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(CategorySnapshotBackfill.class);
+    static final String JOB = "migration:category-snapshots";
+    private static final int BATCH = 500;
+
+    private final MongoTemplate mongoTemplate;
+    private final JobCheckpointRepository checkpointRepository;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        JobCheckpoint checkpoint = checkpointRepository.findById(JOB).orElse(null);
+        if (checkpoint != null && checkpoint.getStatus() == JobCheckpoint.Status.DONE) return;
+        if (checkpoint == null) checkpoint = JobCheckpoint.start(JOB);
+        String collection = mongoTemplate.getCollectionName(Expense.class);
+        Object lastId = checkpoint.getLastId() != null ? new ObjectId(checkpoint.getLastId()) : null;
+        long total = 0;
+        while (true) {
+            Criteria criteria = Criteria.where("category").ne(null).and("categoryRef").exists(false);
+            if (lastId != null) criteria.and("_id").gt(lastId);
+            Query query = Query.query(criteria).with(Sort.by("_id")).limit(BATCH);
+            query.fields().include("category");
+            List<Document> batch = mongoTemplate.find(query, Document.class, collection);
+            if (batch.isEmpty()) break;
+            lastId = batch.get(batch.size() - 1).get("_id");
+
+            Map<Object, String> categoryOf = new HashMap<>();
+            Set<Object> categoryIds = new HashSet<>();
+            for (Document doc : batch) {
+                if (doc.get("category") instanceof DBRef ref) {
+                    categoryOf.put(doc.get("_id"), String.valueOf(ref.getId()));
+                    categoryIds.add(ref.getId());
+                }
+            }
+            Map<String, Category> categories = new HashMap<>();
+            mongoTemplate.find(Query.query(Criteria.where("_id").in(categoryIds)), Category.class)
+                    .forEach(c -> categories.put(c.getId(), c));
+
+            BulkOperations ops = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Expense.class);
+            int updates = 0;
+            for (Map.Entry<Object, String> e : categoryOf.entrySet()) {
+                Category category = categories.get(e.getValue());
+                // Dangling references get an id-only snapshot so they stop matching; responses show no category name
+                Expense.CategoryRef ref = category != null
+                        ? Expense.CategoryRef.of(category)
+                        : new Expense.CategoryRef(e.getValue(), null);
+                ops.updateOne(Query.query(Criteria.where("_id").is(e.getKey())), new Update().set("categoryRef", ref));
+                updates++;
+            }
+            if (updates > 0) ops.execute();
+            total += updates;
+            checkpointRepository.save(checkpoint.advance(String.valueOf(lastId), batch.size()));
+        }
+        checkpointRepository.save(checkpoint.done());
+        if (total > 0) log.info("Backfilled category snapshots on {} expenses", total);
+    }
+}
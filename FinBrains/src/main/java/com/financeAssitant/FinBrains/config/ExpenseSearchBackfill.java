@@ -0,0 +1,65 @@
+package com.financeAssitant.FinBrains.config;
+
+import com.financeAssitant.FinBrains.entity.Expense;
+import com.financeAssitant.FinBrains.entity.JobCheckpoint;
+import com.financeAssitant.FinBrains.listener.ExpenseSearchKeysCallback;
+import com.financeAssitant.FinBrains.repository.JobCheckpointRepository;
+import com.financeAssitant.FinBrains.utility.SearchKeys;
+import lombok.RequiredArgsConstructor;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+// One-shot migration: fills search fields on expenses written before search keys existed, in _id order and in
+// batches. Progress is checkpointed, and once it has finished later startups only read the checkpoint.
+@Component
+@RequiredArgsConstructor
+public class ExpenseSearchBackfill implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(ExpenseSearchBackfill.class);
+    static final String JOB = "migration:expense-search-keys";
+    private static final int BATCH = 500;
+
+    private final MongoTemplate mongoTemplate;
+    private final JobCheckpointRepository checkpointRepository;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        JobCheckpoint checkpoint = checkpointRepository.findById(JOB).orElse(null);
+        if (checkpoint != null && checkpoint.getStatus() == JobCheckpoint.Status.DONE) return;
+        if (checkpoint == null) checkpoint = JobCheckpoint.start(JOB);
+        long total = 0;
+        while (true) {
+            Criteria criteria = Criteria.where("searchPrefixes").exists(false);
+            if (checkpoint.getLastId() != null) criteria.and("_id").gt(new ObjectId(checkpoint.getLastId()));
+            Query query = Query.query(criteria).with(Sort.by("_id")).limit(BATCH);
+            query.fields().include("description").include("subcategory").include("tags");
+            List<Expense> batch = mongoTemplate.find(query, Expense.class);
+            if (batch.isEmpty()) break;
+
+            BulkOperations ops = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Expense.class);
+            for (Expense e : batch) {
+                List<String> tokens = SearchKeys.tokens(ExpenseSearchKeysCallback.searchableText(e));
+                ops.updateOne(Query.query(Criteria.where("_id").is(e.getId())), new Update()
+                        .set("searchTokens", tokens)
+                        .set("searchPrefixes", SearchKeys.prefixes(tokens)));
+            }
+            ops.execute();
+            total += batch.size();
+            checkpointRepository.save(checkpoint.advance(batch.get(batch.size() - 1).getId(), batch.size()));
+        }
+        checkpointRepository.save(checkpoint.done());
+        if (total > 0) log.info("Backfilled search keys on {} expenses", total);
+    }
+}
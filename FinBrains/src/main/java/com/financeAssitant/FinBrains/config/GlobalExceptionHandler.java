@@ -1,5 +1,6 @@
 package com.financeAssitant.FinBrains.config;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -33,6 +34,15 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(body, HttpStatus.BAD_REQUEST);
     }
 
+    // The database is at its concurrency limit; clients should back off instead of piling on
+    @ExceptionHandler(MongoConcurrencyLimiter.MongoSaturatedException.class)
+    public ResponseEntity<?> handleSaturated(MongoConcurrencyLimiter.MongoSaturatedException ex) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("success", false);
+        body.put("message", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").body(body);
+    }
+
     @ExceptionHandler(RuntimeException.class)
     public ResponseEntity<?> handleRuntime(RuntimeException ex) {
         Map<String, Object> body = new HashMap<>();
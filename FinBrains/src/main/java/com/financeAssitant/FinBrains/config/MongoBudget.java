@@ -0,0 +1,16 @@
+package com.financeAssitant.FinBrains.config;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Per-endpoint override of app.mongo.budget.max-commands / max-documents; a negative value keeps the default
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface MongoBudget {
+
+    int commands() default -1;
+
+    long documents() default -1;
+}
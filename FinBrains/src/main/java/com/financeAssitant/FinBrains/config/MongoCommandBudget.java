@@ -0,0 +1,105 @@
+package com.financeAssitant.FinBrains.config;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// Mongo commands and documents issued by the current thread within a tracked unit of work (an HTTP request, or a
+// block passed to measure()). The synchronous driver reports commands on the calling thread, so a ThreadLocal is
+// enough; work handed to @Async or other threads is not attributed to the request.
+public final class MongoCommandBudget {
+
+    // Request attribute holding the finished Usage, e.g. for MockMvc tests
+    public static final String REQUEST_ATTRIBUTE = MongoCommandBudget.class.getName() + ".usage";
+    private static final int MAX_RECORDED_COMMANDS = 50;
+    private static final ThreadLocal<Usage> CURRENT = new ThreadLocal<>();
+
+    private MongoCommandBudget() {
+    }
+
+    static Usage start(String label) {
+        Usage usage = new Usage(label);
+        CURRENT.set(usage);
+        return usage;
+    }
+
+    static Usage stop() {
+        Usage usage = CURRENT.get();
+        CURRENT.remove();
+        return usage;
+    }
+
+    // Runs the action and returns what it issued; usage inside a tracked request still counts towards the request
+    public static Usage measure(Runnable action) {
+        Usage outer = CURRENT.get();
+        Usage usage = new Usage("measure");
+        CURRENT.set(usage);
+        try {
+            action.run();
+        } finally {
+            if (outer != null) {
+                outer.add(usage);
+                CURRENT.set(outer);
+            } else {
+                CURRENT.remove();
+            }
+        }
+        return usage;
+    }
+
+    static void commandStarted(String command, String collection) {
+        Usage usage = CURRENT.get();
+        if (usage != null) usage.command(command + " " + collection);
+    }
+
+    static void documentsReturned(long documents) {
+        Usage usage = CURRENT.get();
+        if (usage != null) usage.documents += documents;
+    }
+
+    public static final class Usage {
+        private final String label;
+        private final List<String> commands = new ArrayList<>();
+        private int commandCount;
+        private long documents;
+
+        private Usage(String label) {
+            this.label = label;
+        }
+
+        private void command(String description) {
+            commandCount++;
+            if (commands.size() < MAX_RECORDED_COMMANDS) commands.add(description);
+        }
+
+        private void add(Usage other) {
+            commandCount += other.commandCount;
+            documents += other.documents;
+            for (String c : other.commands) {
+                if (commands.size() < MAX_RECORDED_COMMANDS) commands.add(c);
+            }
+        }
+
+        public String label() {
+            return label;
+        }
+
+        public int commandCount() {
+            return commandCount;
+        }
+
+        public long documents() {
+            return documents;
+        }
+
+        // "find expenses", "aggregate expenses", ... in issue order (the first 50)
+        public List<String> commands() {
+            return Collections.unmodifiableList(commands);
+        }
+
+        @Override
+        public String toString() {
+            return label + ": " + commandCount + " commands, " + documents + " documents " + commands;
+        }
+    }
+}
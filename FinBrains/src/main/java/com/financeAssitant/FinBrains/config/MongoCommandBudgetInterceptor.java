@@ -0,0 +1,88 @@
+package com.financeAssitant.FinBrains.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+// Tracks the Mongo commands and documents of each controller call and flags calls over budget
+// (app.mongo.budget.max-commands / max-documents, or @MongoBudget on the handler) as
+// "Mongo budget exceeded by BudgetController#history: ..." plus finbrains.mongo.budget.exceeded{handler}.
+@Component
+@ConditionalOnProperty(name = "app.mongo.budget.enabled", havingValue = "true", matchIfMissing = true)
+public class MongoCommandBudgetInterceptor implements AsyncHandlerInterceptor, WebMvcConfigurer {
+
+    private static final Logger log = LoggerFactory.getLogger(MongoCommandBudgetInterceptor.class);
+
+    private final MeterRegistry registry;
+    private final int maxCommands;
+    private final long maxDocuments;
+
+    public MongoCommandBudgetInterceptor(MeterRegistry registry,
+                                         @Value("${app.mongo.budget.max-commands:5}") int maxCommands,
+                                         @Value("${app.mongo.budget.max-documents:1000}") long maxDocuments) {
+        this.registry = registry;
+        this.maxCommands = maxCommands;
+        this.maxDocuments = maxDocuments;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(this);
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (request.getDispatcherType() == DispatcherType.ASYNC) return true;
+        if (handler instanceof HandlerMethod method) {
+            MongoCommandBudget.start(method.getBeanType().getSimpleName() + "#" + method.getMethod().getName());
+        }
+        return true;
+    }
+
+    // Streaming/async responses finish on another thread; only the handler's own part is tracked, recorded here
+    // since the ASYNC re-dispatch that completes the request is skipped
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        record(request, handler);
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (request.getDispatcherType() == DispatcherType.ASYNC) return;
+        record(request, handler);
+    }
+
+    private void record(HttpServletRequest request, Object handler) {
+        MongoCommandBudget.Usage usage = MongoCommandBudget.stop();
+        if (!(handler instanceof HandlerMethod method)) return;
+        if (usage == null) return;
+        request.setAttribute(MongoCommandBudget.REQUEST_ATTRIBUTE, usage);
+
+        String handlerName = usage.label();
+        DistributionSummary.builder("finbrains.request.mongo.commands").tag("handler", handlerName)
+                .register(registry).record(usage.commandCount());
+        DistributionSummary.builder("finbrains.request.mongo.documents").tag("handler", handlerName)
+                .register(registry).record(usage.documents());
+
+        MongoBudget budget = method.getMethodAnnotation(MongoBudget.class);
+        int commandLimit = budget != null && budget.commands() >= 0 ? budget.commands() : maxCommands;
+        long documentLimit = budget != null && budget.documents() >= 0 ? budget.documents() : maxDocuments;
+        if (usage.commandCount() > commandLimit || usage.documents() > documentLimit) {
+            log.warn("Mongo budget exceeded by {} (limits {} commands / {} documents): {} commands {}, {} documents",
+                    handlerName, commandLimit, documentLimit, usage.commandCount(), usage.commands(), usage.documents());
+            Counter.builder("finbrains.mongo.budget.exceeded").tag("handler", handlerName).register(registry).increment();
+        }
+    }
+}
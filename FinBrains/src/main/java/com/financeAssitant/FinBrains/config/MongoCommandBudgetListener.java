@@ -0,0 +1,32 @@
+package com.financeAssitant.FinBrains.config;
+
+import com.mongodb.MongoClientSettings;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.stereotype.Component;
+
+// Feeds every Mongo command and the documents it returned into the calling thread's MongoCommandBudget
+@Component
+@ConditionalOnProperty(name = "app.mongo.budget.enabled", havingValue = "true", matchIfMissing = true)
+public class MongoCommandBudgetListener implements CommandListener, MongoClientSettingsBuilderCustomizer {
+
+    @Override
+    public void customize(MongoClientSettings.Builder builder) {
+        builder.addCommandListener(this);
+    }
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        MongoCommandBudget.commandStarted(event.getCommandName(),
+                MongoCommandMetricsListener.collectionOf(event.getCommandName(), event.getCommand()));
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        long documents = event.getResponse() != null ? MongoCommandMetricsListener.documentsIn(event.getResponse()) : -1;
+        if (documents > 0) MongoCommandBudget.documentsReturned(documents);
+    }
+}
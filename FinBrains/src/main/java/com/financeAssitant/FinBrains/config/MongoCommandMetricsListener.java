@@ -0,0 +1,103 @@
+package com.financeAssitant.FinBrains.config;
+
+import com.mongodb.MongoClientSettings;
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.bson.BsonArray;
+import org.bson.BsonBinaryWriter;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.codecs.BsonDocumentCodec;
+import org.bson.codecs.EncoderContext;
+import org.bson.io.BasicOutputBuffer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Documents and reply bytes per Mongo read (find, aggregate, getMore): finbrains.mongo.documents / finbrains.mongo.reply.bytes{command, collection}.
+// Command durations and pool gauges come from the driver metrics Spring Boot registers (mongodb.driver.*).
+@Component
+public class MongoCommandMetricsListener implements CommandListener, MongoClientSettingsBuilderCustomizer {
+
+    private static final BsonDocumentCodec CODEC = new BsonDocumentCodec();
+
+    private final MeterRegistry registry;
+    // Reply bytes are measured by re-encoding the reply, which costs a little CPU per command
+    private final boolean measureBytes;
+    private final Map<Integer, String> collections = new ConcurrentHashMap<>();
+
+    public MongoCommandMetricsListener(MeterRegistry registry,
+                                       @Value("${app.metrics.mongo.reply-bytes:true}") boolean measureBytes) {
+        this.registry = registry;
+        this.measureBytes = measureBytes;
+    }
+
+    @Override
+    public void customize(MongoClientSettings.Builder builder) {
+        builder.addCommandListener(this);
+    }
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        collections.put(event.getRequestId(), collectionOf(event.getCommandName(), event.getCommand()));
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        String collection = collections.remove(event.getRequestId());
+        BsonDocument reply = event.getResponse();
+        String command = event.getCommandName();
+        if (collection == null || reply == null) return;
+
+        long documents = documentsIn(reply);
+        if (documents < 0) return;
+        DistributionSummary.builder("finbrains.mongo.documents")
+                .tag("command", command)
+                .tag("collection", collection)
+                .register(registry)
+                .record(documents);
+        if (measureBytes) {
+            DistributionSummary.builder("finbrains.mongo.reply.bytes")
+                    .baseUnit("bytes")
+                    .tag("command", command)
+                    .tag("collection", collection)
+                    .register(registry)
+                    .record(sizeOf(reply));
+        }
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        collections.remove(event.getRequestId());
+    }
+
+    // The command document names its collection, e.g. { find: "expenses" } or { getMore: <id>, collection: "expenses" }
+    static String collectionOf(String commandName, BsonDocument command) {
+        BsonValue target = "getMore".equals(commandName) ? command.get("collection") : command.get(commandName);
+        return target != null && target.isString() ? target.asString().getValue() : "unknown";
+    }
+
+    // Cursor replies (find, aggregate, getMore) carry their documents in firstBatch/nextBatch; -1 for other commands
+    static long documentsIn(BsonDocument reply) {
+        BsonValue cursor = reply.get("cursor");
+        if (cursor == null || !cursor.isDocument()) return -1;
+        BsonDocument c = cursor.asDocument();
+        BsonValue batch = c.containsKey("firstBatch") ? c.get("firstBatch") : c.get("nextBatch");
+        return batch instanceof BsonArray array ? array.size() : 0;
+    }
+
+    private static int sizeOf(BsonDocument reply) {
+        try (BasicOutputBuffer buffer = new BasicOutputBuffer();
+             BsonBinaryWriter writer = new BsonBinaryWriter(buffer)) {
+            CODEC.encode(writer, reply, EncoderContext.builder().build());
+            return buffer.getPosition();
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.financeAssitant.FinBrains.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+// Caps how many threads talk to MongoDB at once. With virtual threads request concurrency is no longer bounded by
+// Tomcat's pool, so without this every request beyond the driver's connection pool would queue inside the driver
+// until its wait-queue timeout. Request threads wait up to acquire-timeout and then fail fast with a 503;
+// scheduled and async jobs just wait their turn. Nested calls (a repository method calling MongoTemplate) hold
+// a single permit. Streams only hold the permit while the query is opened, not while the cursor is drained.
+@Aspect
+@Component
+public class MongoConcurrencyLimiter {
+
+    private static final Logger log = LoggerFactory.getLogger(MongoConcurrencyLimiter.class);
+    private static final ThreadLocal<Boolean> HOLDING = new ThreadLocal<>();
+
+    private final Semaphore permits;
+    private final int maxConcurrency;
+    private final long acquireTimeoutNanos;
+    private final Counter rejected;
+
+    public MongoConcurrencyLimiter(@Value("${app.mongo.max-concurrency:100}") int maxConcurrency, // driver's default maxPoolSize
+                                   @Value("${app.mongo.acquire-timeout:2s}") Duration acquireTimeout,
+                                   MeterRegistry registry) {
+        this.maxConcurrency = Math.max(1, maxConcurrency);
+        this.permits = new Semaphore(this.maxConcurrency, true);
+        this.acquireTimeoutNanos = acquireTimeout.toNanos();
+        this.rejected = Counter.builder("finbrains.mongo.rejected").register(registry);
+        Gauge.builder("finbrains.mongo.in-flight", permits, p -> this.maxConcurrency - p.availablePermits())
+                .register(registry);
+    }
+
+    @Around("this(org.springframework.data.repository.Repository)"
+            + " || (target(org.springframework.data.mongodb.core.MongoTemplate) && execution(public * *(..))"
+            + " && !execution(* get*(..)) && !execution(* set*(..)) && !execution(* indexOps(..)))")
+    public Object limit(ProceedingJoinPoint pjp) throws Throwable {
+        if (HOLDING.get() != null) return wrap(pjp.proceed());
+        acquire(pjp.getSignature().toShortString());
+        HOLDING.set(Boolean.TRUE);
+        try {
+            return wrap(pjp.proceed());
+        } finally {
+            HOLDING.remove();
+            permits.release();
+        }
+    }
+
+    private void acquire(String operation) throws InterruptedException {
+        if (RequestContextHolder.getRequestAttributes() == null) {
+            permits.acquire();
+            return;
+        }
+        if (!permits.tryAcquire(acquireTimeoutNanos, TimeUnit.NANOSECONDS)) {
+            rejected.increment();
+            log.debug("Mongo saturated: {} calls in flight, rejected {}", maxConcurrency, operation);
+            throw new MongoSaturatedException();
+        }
+    }
+
+    // Bulk operations are built first and sent by execute(), which has to take its own permit
+    private Object wrap(Object result) {
+        if (!(result instanceof BulkOperations bulk)) return result;
+        return Proxy.newProxyInstance(BulkOperations.class.getClassLoader(), new Class<?>[]{BulkOperations.class},
+                (proxy, method, args) -> {
+                    boolean execute = method.getName().equals("execute");
+                    boolean acquired = false;
+                    if (execute && HOLDING.get() == null) {
+                        acquire("BulkOperations.execute");
+                        HOLDING.set(Boolean.TRUE);
+                        acquired = true;
+                    }
+                    try {
+                        Object value = method.invoke(bulk, args);
+                        return value == bulk ? proxy : value;
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    } finally {
+                        if (acquired) {
+                            HOLDING.remove();
+                            permits.release();
+                        }
+                    }
+                });
+    }
+
+    // Mapped to 503 by GlobalExceptionHandler
+    public static class MongoSaturatedException extends RuntimeException {
+        public MongoSaturatedException() {
+            super("Service is busy, please retry shortly");
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.financeAssitant.FinBrains.config;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+// Creates the indexes declared on @Document entities at startup.
+// Spring Data does not do this unless spring.data.mongodb.auto-index-creation=true.
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+public class MongoIndexInitializer implements ApplicationRunner {
+
+    // Indexes superseded by a wider declared index with the same prefix
+    private static final Map<String, List<String>> RETIRED_INDEXES = Map.of(
+            "expenses", List.of("user_date", "recurring_next_due")
+    );
+
+    private final MongoTemplate mongoTemplate;
+    private final MongoMappingContext mappingContext;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        MongoPersistentEntityIndexResolver resolver = new MongoPersistentEntityIndexResolver(mappingContext);
+        for (MongoPersistentEntity<?> entity : mappingContext.getPersistentEntities()) {
+            if (!entity.isAnnotationPresent(Document.class)) continue;
+            IndexOperations ops = mongoTemplate.indexOps(entity.getType());
+            resolver.resolveIndexFor(entity.getType()).forEach(ops::createIndex);
+            List<String> retired = RETIRED_INDEXES.getOrDefault(entity.getCollection(), List.of());
+            ops.getIndexInfo().stream()
+                    .filter(info -> retired.contains(info.getName()))
+                    .forEach(info -> ops.dropIndex(info.getName()));
+        }
+    }
+}
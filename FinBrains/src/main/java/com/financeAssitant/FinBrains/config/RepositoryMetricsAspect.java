@@ -0,0 +1,80 @@
+package com.financeAssitant.FinBrains.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Times every call on our Spring Data repositories (derived, @Query and custom methods alike) and records how many
+// documents each returned: finbrains.repository / finbrains.repository.documents{repository, method}.
+// Reply sizes per command are recorded by MongoCommandMetricsListener.
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class RepositoryMetricsAspect {
+
+    private static final String APP_PACKAGE = "com.financeAssitant.FinBrains.";
+
+    private final MeterRegistry registry;
+    private final Map<Class<?>, String> repositoryNames = new ConcurrentHashMap<>();
+
+    @Around("this(org.springframework.data.repository.Repository)")
+    public Object measure(ProceedingJoinPoint pjp) throws Throwable {
+        String repository = repositoryName(pjp.getThis());
+        String method = pjp.getSignature().getName();
+        Timer.Sample sample = Timer.start(registry);
+        String exception = "none";
+        try {
+            Object result = pjp.proceed();
+            long documents = documentsIn(result);
+            if (documents >= 0) {
+                DistributionSummary.builder("finbrains.repository.documents")
+                        .tag("repository", repository)
+                        .tag("method", method)
+                        .register(registry)
+                        .record(documents);
+            }
+            return result;
+        } catch (Throwable t) {
+            exception = t.getClass().getSimpleName();
+            throw t;
+        } finally {
+            sample.stop(Timer.builder("finbrains.repository")
+                    .tag("repository", repository)
+                    .tag("method", method)
+                    .tag("exception", exception)
+                    .register(registry));
+        }
+    }
+
+    // Our interface behind the proxy (e.g. ExpenseRepository), not the Spring Data base type
+    private String repositoryName(Object proxy) {
+        return repositoryNames.computeIfAbsent(proxy.getClass(), type -> {
+            for (Class<?> iface : AopProxyUtils.proxiedUserInterfaces(proxy)) {
+                if (iface.getName().startsWith(APP_PACKAGE)) return iface.getSimpleName();
+            }
+            return type.getSimpleName();
+        });
+    }
+
+    // -1 for results that are not documents (counts, booleans, void)
+    private static long documentsIn(Object result) {
+        if (result == null) return 0;
+        if (result instanceof Collection<?> c) return c.size();
+        if (result instanceof Slice<?> s) return s.getNumberOfElements();
+        if (result instanceof Optional<?> o) return o.isPresent() ? 1 : 0;
+        if (result instanceof Number || result instanceof Boolean || result instanceof Map<?, ?>) return -1;
+        return result.getClass().getName().startsWith(APP_PACKAGE + "entity.") ? 1 : -1;
+    }
+}
@@ -1,5 +1,6 @@
 package com.financeAssitant.FinBrains.controller;
 
+import com.financeAssitant.FinBrains.config.MongoConcurrencyLimiter;
 import com.financeAssitant.FinBrains.dto.AuthResponse;
 import com.financeAssitant.FinBrains.dto.LoginRequest;
 import com.financeAssitant.FinBrains.dto.SignupRequest;
@@ -33,6 +34,9 @@ public class AuthController {
             response.put("data", authResponse);
 
             return ResponseEntity.ok(response);
+        } catch (MongoConcurrencyLimiter.MongoSaturatedException e) {
+            // Left to GlobalExceptionHandler: 503 with Retry-After, not a 400 the client would not retry
+            throw e;
         } catch (RuntimeException e) {
             Map<String, Object> response = new HashMap<>();
             response.put("success", false);
@@ -53,6 +57,8 @@ public class AuthController {
             response.put("data", authResponse);
 
             return ResponseEntity.ok(response);
+        } catch (MongoConcurrencyLimiter.MongoSaturatedException e) {
+            throw e;
         } catch (RuntimeException e) {
             Map<String, Object> response = new HashMap<>();
             response.put("success", false);
@@ -116,6 +122,8 @@ public class AuthController {
                     "success", true,
                     "message", "Password reset successfully"
             ));
+        } catch (MongoConcurrencyLimiter.MongoSaturatedException e) {
+            throw e;
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().body(Map.of(
                     "success", false,
@@ -93,14 +93,16 @@ public class BudgetController {
         if (userId == null || userId.isBlank()) {
             return ResponseEntity.status(401).body(Map.of("success", false, "message", "Unauthorized"));
         }
+        // Only the parsing is caught: service failures (e.g. Mongo saturation, a 503) go to GlobalExceptionHandler
+        YearMonth ymFrom, ymTo;
         try {
-            YearMonth ymFrom = YearMonth.parse(from);
-            YearMonth ymTo = YearMonth.parse(to);
-            var data = budgetService.getHistory(userId, ymFrom, ymTo);
-            return ResponseEntity.ok(Map.of("success", true, "data", data));
+            ymFrom = YearMonth.parse(from);
+            ymTo = YearMonth.parse(to);
         } catch (Exception ex) {
             return ResponseEntity.badRequest().body(Map.of("success", false, "message", "Invalid month format. Expected YYYY-MM"));
         }
+        var data = budgetService.getHistory(userId, ymFrom, ymTo);
+        return ResponseEntity.ok(Map.of("success", true, "data", data));
     }
 
     @GetMapping("/breakdown")
@@ -112,13 +114,14 @@ public class BudgetController {
         if (userId == null || userId.isBlank()) {
             return ResponseEntity.status(401).body(Map.of("success", false, "message", "Unauthorized"));
         }
+        YearMonth ym;
         try {
-            YearMonth ym = YearMonth.parse(month);
-            var data = budgetService.getCategoryBreakdown(userId, ym);
-            return ResponseEntity.ok(Map.of("success", true, "data", data));
+            ym = YearMonth.parse(month);
         } catch (Exception ex) {
             return ResponseEntity.badRequest().body(Map.of("success", false, "message", "Invalid month format. Expected YYYY-MM"));
         }
+        var data = budgetService.getCategoryBreakdown(userId, ym);
+        return ResponseEntity.ok(Map.of("success", true, "data", data));
     }
 
     private String resolveUserId(String headerUserId) {
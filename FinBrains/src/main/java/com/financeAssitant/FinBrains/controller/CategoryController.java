@@ -2,8 +2,11 @@ package com.financeAssitant.FinBrains.controller;
 
 import com.financeAssitant.FinBrains.dto.CategoryCreateRequest;
 import com.financeAssitant.FinBrains.entity.Category;
+import com.financeAssitant.FinBrains.entity.CategoryDeleteJob;
+import com.financeAssitant.FinBrains.entity.Expense;
 import com.financeAssitant.FinBrains.service.CategoryService;
 import com.financeAssitant.FinBrains.repository.ExpenseRepository;
+import com.financeAssitant.FinBrains.utility.CategoryKeywords;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
@@ -15,11 +18,7 @@ import org.springframework.web.bind.annotation.*;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Arrays;
 import java.util.stream.Collectors;
-import java.util.Set;
-import java.util.HashSet;
-import java.util.LinkedHashMap;
 
 @RestController
 @RequestMapping("/api/categories")
@@ -56,38 +55,10 @@ public class CategoryController {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(err);
         }
         List<Category> categories = categoryService.getAll(userId);
-        Set<String> stop = new HashSet<>(Arrays.asList("the","a","an","and","to","for","of","on","in","at","with","by","is","was","this","that","order","payment","txn","paid","bill","recharge"));
         var data = categories.stream().map(c -> {
-            String nm = c.getName() == null ? "" : c.getName();
-            List<String> base = Arrays.stream(nm.toLowerCase().split("[^a-z0-9]+"))
-                    .filter(s -> s != null && !s.isBlank())
-                    .collect(Collectors.toList());
-
             // Learn from user's past expenses for this category (recent first)
             var recent = expenseRepository.findByUserIdAndCategory_IdOrderByDateDesc(userId, c.getId());
-            Map<String, Integer> freq = new LinkedHashMap<>();
-            for (var e : recent) {
-                String desc = e.getDescription();
-                if (desc == null) continue;
-                String[] toks = desc.toLowerCase().split("[^a-z0-9]+");
-                for (String t : toks) {
-                    if (t == null || t.isBlank()) continue;
-                    if (stop.contains(t)) continue;
-                    if (t.length() < 3) continue;
-                    freq.put(t, freq.getOrDefault(t, 0) + 1);
-                }
-            }
-            List<String> learned = freq.entrySet().stream()
-                    .sorted((a,b)->Integer.compare(b.getValue(), a.getValue()))
-                    .limit(12)
-                    .map(Map.Entry::getKey)
-                    .collect(Collectors.toList());
-
-            // Merge and distinct
-            List<String> kws = Arrays.asList(new String[0]);
-            kws = java.util.stream.Stream.concat(base.stream(), learned.stream())
-                    .distinct()
-                    .collect(Collectors.toList());
+            List<String> kws = CategoryKeywords.extract(c.getName(), recent.stream().map(Expense::getDescription).toList());
 
             Map<String,Object> m = new HashMap<>();
             m.put("id", c.getId());
@@ -118,8 +89,46 @@ public class CategoryController {
         return new ResponseEntity<>(response, HttpStatus.CREATED);
     }
 
+    @PutMapping("/{id}")
+    public ResponseEntity<?> rename(@PathVariable String id, @Valid @RequestBody CategoryCreateRequest request) {
+        String userId = resolveUserId();
+        if (userId == null) {
+            Map<String, Object> err = new HashMap<>();
+            err.put("success", false);
+            err.put("message", "Unauthorized: missing or invalid token");
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(err);
+        }
+        Category renamed = categoryService.rename(userId, id, request.getName());
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("message", "Category renamed successfully!");
+        response.put("data", renamed);
+        return ResponseEntity.ok(response);
+    }
+
     @DeleteMapping("/{id}")
-    public ResponseEntity<?> delete(@PathVariable String id) {
+    public ResponseEntity<?> delete(@PathVariable String id, @RequestParam(required = false) String reassignTo) {
+        String userId = resolveUserId();
+        if (userId == null) {
+            Map<String, Object> err = new HashMap<>();
+            err.put("success", false);
+            err.put("message", "Unauthorized: missing or invalid token");
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(err);
+        }
+        CategoryDeleteJob job = categoryService.delete(userId, id, reassignTo);
+        Map<String, Object> response = new HashMap<>();
+        // Large categories finish in the background; poll GET /api/categories/deletions/{jobId}
+        boolean running = job.getStatus() == CategoryDeleteJob.Status.RUNNING;
+        response.put("success", job.getStatus() != CategoryDeleteJob.Status.FAILED);
+        response.put("message", running ? "Category deleted; expenses are being updated"
+                : job.getStatus() == CategoryDeleteJob.Status.FAILED ? "Category deleted; updating its expenses failed"
+                : "Category deleted successfully!");
+        response.put("data", job);
+        return ResponseEntity.status(running ? HttpStatus.ACCEPTED : HttpStatus.OK).body(response);
+    }
+
+    @GetMapping("/deletions/{jobId}")
+    public ResponseEntity<?> deletionStatus(@PathVariable String jobId) {
         String userId = resolveUserId();
         if (userId == null) {
             Map<String, Object> err = new HashMap<>();
@@ -127,10 +136,9 @@ public class CategoryController {
             err.put("message", "Unauthorized: missing or invalid token");
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(err);
         }
-        categoryService.delete(userId, id);
         Map<String, Object> response = new HashMap<>();
         response.put("success", true);
-        response.put("message", "Category deleted successfully!");
+        response.put("data", categoryService.deletionStatus(userId, jobId));
         return ResponseEntity.ok(response);
     }
 
@@ -1,20 +1,38 @@
 package com.financeAssitant.FinBrains.controller;
 
+import com.financeAssitant.FinBrains.config.MongoBudget;
+import com.financeAssitant.FinBrains.config.MongoConcurrencyLimiter;
 import com.financeAssitant.FinBrains.dto.CreateExpenseRequest;
+import com.financeAssitant.FinBrains.dto.ExpenseBatchResponse;
+import com.financeAssitant.FinBrains.dto.ExpenseBatchUpdate;
+import com.financeAssitant.FinBrains.dto.ExpenseCursorPage;
+import com.financeAssitant.FinBrains.dto.ExpenseFilterRequest;
 import com.financeAssitant.FinBrains.dto.ExpenseResponse;
+import com.financeAssitant.FinBrains.dto.UpcomingOccurrenceResponse;
 import com.financeAssitant.FinBrains.dto.UpdateExpenseRequest;
+import com.financeAssitant.FinBrains.entity.ImportJob;
+import com.financeAssitant.FinBrains.service.ExpenseExportService;
+import com.financeAssitant.FinBrains.service.ExpenseImportService;
 import com.financeAssitant.FinBrains.service.ExpenseService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/api/expenses")
@@ -24,6 +42,12 @@ public class ExpenseController {
     @Autowired
     private ExpenseService expenseService;
 
+    @Autowired
+    private ExpenseImportService expenseImportService;
+
+    @Autowired
+    private ExpenseExportService expenseExportService;
+
     // Create new expense
     @PostMapping
     public ResponseEntity<?> createExpense(@RequestHeader(value = "User-ID", required = false) String userIdHeader,
@@ -40,6 +64,9 @@ public class ExpenseController {
             response.put("data", expenseResponse);
 
             return ResponseEntity.ok(response);
+        } catch (MongoConcurrencyLimiter.MongoSaturatedException e) {
+            // Left to GlobalExceptionHandler: 503 with Retry-After, not a 400 the client would not retry
+            throw e;
         } catch (Exception e) {
             Map<String, Object> response = new HashMap<>();
             response.put("success", false);
@@ -64,15 +91,22 @@ public class ExpenseController {
         throw new RuntimeException("User not authenticated and User-ID header missing");
     }
 
-    // Get all expenses for user (with pagination)
+    // Get all expenses for user (with pagination).
+    // Passing cursor (empty for the first page) switches to keyset paging; follow nextCursor for the next page.
     @GetMapping
     public ResponseEntity<?> getUserExpenses(@RequestHeader(value = "User-ID", required = false) String userIdHeader,
                                              @RequestParam(defaultValue = "0") int page,
-                                             @RequestParam(defaultValue = "20") int size) {
+                                             @RequestParam(defaultValue = "20") int size,
+                                             @RequestParam(required = false) String cursor,
+                                             @RequestParam(defaultValue = "false") boolean includeTotal) {
         try {
             // Get user ID from JWT token via security context
             String userId = resolveUserId(userIdHeader);
 
+            if (cursor != null) {
+                return ResponseEntity.ok(cursorResponse(expenseService.getExpensesByCursor(userId, null, cursor, size, includeTotal), size));
+            }
+
             Page<ExpenseResponse> expenses = expenseService.getUserExpensesPaginated(userId, page, size);
 
             Map<String, Object> response = new HashMap<>();
@@ -84,6 +118,8 @@ public class ExpenseController {
             response.put("pageSize", expenses.getSize());
 
             return ResponseEntity.ok(response);
+        } catch (MongoConcurrencyLimiter.MongoSaturatedException e) {
+            throw e;
         } catch (Exception e) {
             Map<String, Object> response = new HashMap<>();
             response.put("success", false);
@@ -93,6 +129,55 @@ public class ExpenseController {
         }
     }
 
+    // Filtered listing: any of startDate, endDate, categoryId, paymentType, minAmount, maxAmount, searchTerm, tags
+    @GetMapping("/filter")
+    public ResponseEntity<?> getFilteredExpenses(@RequestHeader(value = "User-ID", required = false) String userIdHeader,
+                                                 @ModelAttribute ExpenseFilterRequest filterRequest,
+                                                 @RequestParam(required = false) String cursor,
+                                                 @RequestParam(defaultValue = "false") boolean includeTotal) {
+        try {
+            String userId = resolveUserId(userIdHeader);
+
+            if (cursor != null) {
+                int size = filterRequest.getSize() != null ? filterRequest.getSize() : 20;
+                return ResponseEntity.ok(cursorResponse(expenseService.getExpensesByCursor(userId, filterRequest, cursor, size, includeTotal), size));
+            }
+
+            Page<ExpenseResponse> expenses = expenseService.getFilteredExpenses(userId, filterRequest);
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("data", expenses.getContent());
+            response.put("totalElements", expenses.getTotalElements());
+            response.put("totalPages", expenses.getTotalPages());
+            response.put("currentPage", expenses.getNumber());
+            response.put("pageSize", expenses.getSize());
+
+            return ResponseEntity.ok(response);
+        } catch (MongoConcurrencyLimiter.MongoSaturatedException e) {
+            throw e;
+        } catch (Exception e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", e.getMessage());
+
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+
+    private Map<String, Object> cursorResponse(ExpenseCursorPage slice, int size) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("data", slice.getContent());
+        response.put("nextCursor", slice.getNextCursor());
+        response.put("hasMore", slice.isHasMore());
+        response.put("pageSize", size);
+        if (slice.getTotalElements() != null) {
+            response.put("totalElements", slice.getTotalElements());
+        }
+        return response;
+    }
+
     // Get expense by ID
     @GetMapping("/{expenseId}")
     public ResponseEntity<?> getExpenseById(@RequestHeader(value = "User-ID", required = false) String userIdHeader,
@@ -107,6 +192,8 @@ public class ExpenseController {
             response.put("data", expense);
 
             return ResponseEntity.ok(response);
+        } catch (MongoConcurrencyLimiter.MongoSaturatedException e) {
+            throw e;
         } catch (RuntimeException e) {
             Map<String, Object> response = new HashMap<>();
             response.put("success", false);
@@ -131,6 +218,8 @@ public class ExpenseController {
             response.put("data", expenseResponse);
 
             return ResponseEntity.ok(response);
+        } catch (MongoConcurrencyLimiter.MongoSaturatedException e) {
+            throw e;
         } catch (RuntimeException e) {
             Map<String, Object> response = new HashMap<>();
             response.put("success", false);
@@ -153,6 +242,8 @@ public class ExpenseController {
             response.put("message", "Expense deleted successfully!");
 
             return ResponseEntity.ok(response);
+        } catch (MongoConcurrencyLimiter.MongoSaturatedException e) {
+            throw e;
         } catch (RuntimeException e) {
             Map<String, Object> response = new HashMap<>();
             response.put("success", false);
@@ -175,6 +266,8 @@ public class ExpenseController {
             response.put("count", expenses.size());
 
             return ResponseEntity.ok(response);
+        } catch (MongoConcurrencyLimiter.MongoSaturatedException e) {
+            throw e;
         } catch (Exception e) {
             Map<String, Object> response = new HashMap<>();
             response.put("success", false);
@@ -195,6 +288,31 @@ public class ExpenseController {
             response.put("data", items);
             response.put("count", items.size());
             return ResponseEntity.ok(response);
+        } catch (MongoConcurrencyLimiter.MongoSaturatedException e) {
+            throw e;
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                    "success", false,
+                    "message", e.getMessage()
+            ));
+        }
+    }
+
+    // Projected occurrences of recurring expenses (bounded window and count)
+    @GetMapping("/recurring/upcoming")
+    public ResponseEntity<?> getUpcomingRecurring(@RequestHeader(value = "User-ID", required = false) String userIdHeader,
+                                                  @RequestParam(defaultValue = "30") int days,
+                                                  @RequestParam(defaultValue = "100") int limit) {
+        try {
+            String userId = resolveUserId(userIdHeader);
+            List<UpcomingOccurrenceResponse> items = expenseService.getUpcomingOccurrences(userId, days, limit);
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("data", items);
+            response.put("count", items.size());
+            return ResponseEntity.ok(response);
+        } catch (MongoConcurrencyLimiter.MongoSaturatedException e) {
+            throw e;
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of(
                     "success", false,
@@ -217,6 +335,8 @@ public class ExpenseController {
                     "message", "Recurring settings updated",
                     "data", out
             ));
+        } catch (MongoConcurrencyLimiter.MongoSaturatedException e) {
+            throw e;
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().body(Map.of(
                     "success", false,
@@ -234,6 +354,29 @@ public class ExpenseController {
                     "success", true,
                     "data", Map.of("balance", balance)
             ));
+        } catch (MongoConcurrencyLimiter.MongoSaturatedException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                    "success", false,
+                    "message", e.getMessage()
+            ));
+        }
+    }
+
+    // Recompute the running balance from the full history (repairs drift)
+    @PostMapping("/balance/reconcile")
+    public ResponseEntity<?> reconcileBalance(@RequestHeader(value = "User-ID", required = false) String userIdHeader) {
+        try {
+            String userId = resolveUserId(userIdHeader);
+            double balance = expenseService.reconcileBalance(userId);
+            return ResponseEntity.ok(Map.of(
+                    "success", true,
+                    "message", "Balance reconciled",
+                    "data", Map.of("balance", balance)
+            ));
+        } catch (MongoConcurrencyLimiter.MongoSaturatedException e) {
+            throw e;
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().body(Map.of(
                     "success", false,
@@ -253,6 +396,8 @@ public class ExpenseController {
                     "success", true,
                     "data", Map.of("month", ym.toString(), "income", income)
             ));
+        } catch (MongoConcurrencyLimiter.MongoSaturatedException e) {
+            throw e;
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of(
                     "success", false,
@@ -260,4 +405,120 @@ public class ExpenseController {
             ));
         }
     }
+
+    // Batch endpoints for offline sync: up to app.expenses.batch.max-size items per call, each validated on its own.
+    // The response carries one result per item (success, message, data) in request order.
+    @PostMapping("/batch")
+    @MongoBudget(commands = 8)
+    public ResponseEntity<?> createExpenses(@RequestHeader(value = "User-ID", required = false) String userIdHeader,
+                                            @RequestBody List<CreateExpenseRequest> requests) {
+        return batchResponse(() -> expenseService.createExpenses(resolveUserId(userIdHeader), requests));
+    }
+
+    @PutMapping("/batch")
+    @MongoBudget(commands = 8)
+    public ResponseEntity<?> updateExpenses(@RequestHeader(value = "User-ID", required = false) String userIdHeader,
+                                            @RequestBody List<ExpenseBatchUpdate> requests) {
+        return batchResponse(() -> expenseService.updateExpenses(resolveUserId(userIdHeader), requests));
+    }
+
+    // Body: JSON array of expense ids
+    @PostMapping("/batch/delete")
+    @MongoBudget(commands = 8)
+    public ResponseEntity<?> deleteExpenses(@RequestHeader(value = "User-ID", required = false) String userIdHeader,
+                                            @RequestBody List<String> expenseIds) {
+        return batchResponse(() -> expenseService.deleteExpenses(resolveUserId(userIdHeader), expenseIds));
+    }
+
+    private ResponseEntity<?> batchResponse(Supplier<ExpenseBatchResponse> batch) {
+        try {
+            ExpenseBatchResponse result = batch.get();
+            return ResponseEntity.ok(Map.of(
+                    "success", result.getFailed() == 0,
+                    "message", result.getSucceeded() + " of " + result.getResults().size() + " succeeded",
+                    "data", result
+            ));
+        } catch (MongoConcurrencyLimiter.MongoSaturatedException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                    "success", false,
+                    "message", String.valueOf(e.getMessage())
+            ));
+        }
+    }
+
+    // Streams every matching expense as CSV (default) or NDJSON, newest first. Takes the /filter parameters
+    // (startDate, endDate, categoryId, ...); gzip-compressed when the client sends Accept-Encoding: gzip.
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportExpenses(@RequestHeader(value = "User-ID", required = false) String userIdHeader,
+                                                                @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                                                @ModelAttribute ExpenseFilterRequest filterRequest,
+                                                                @RequestParam(required = false) String format) {
+        // Typed as StreamingResponseBody so MVC streams it; errors before the first byte go to GlobalExceptionHandler
+        String userId = resolveUserId(userIdHeader);
+        ExpenseExportService.Format exportFormat = ExpenseExportService.Format.of(format);
+        boolean gzip = acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip");
+
+        StreamingResponseBody body = out -> {
+            if (gzip) {
+                try (GZIPOutputStream compressed = new GZIPOutputStream(out, 8192)) {
+                    expenseExportService.export(userId, filterRequest, exportFormat, compressed);
+                }
+            } else {
+                expenseExportService.export(userId, filterRequest, exportFormat, out);
+            }
+        };
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.contentType + ";charset=UTF-8"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("expenses." + exportFormat.extension).build().toString())
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        return response.body(body);
+    }
+
+    // Bulk import of a CSV or OFX bank statement (multipart 'file'). Returns 202 with the import job;
+    // poll GET /api/expenses/import/{importId} for progress. dateFormat is a java.time pattern for CSV dates.
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<?> importStatement(@RequestHeader(value = "User-ID", required = false) String userIdHeader,
+                                             @RequestParam("file") MultipartFile file,
+                                             @RequestParam(required = false) String format,
+                                             @RequestParam(required = false) String dateFormat) {
+        try {
+            String userId = resolveUserId(userIdHeader);
+            ImportJob job = expenseImportService.start(userId, file, format, dateFormat);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(Map.of(
+                    "success", true,
+                    "message", "Import started",
+                    "data", job
+            ));
+        } catch (MongoConcurrencyLimiter.MongoSaturatedException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                    "success", false,
+                    "message", String.valueOf(e.getMessage())
+            ));
+        }
+    }
+
+    @GetMapping("/import/{importId}")
+    public ResponseEntity<?> getImport(@RequestHeader(value = "User-ID", required = false) String userIdHeader,
+                                       @PathVariable String importId) {
+        try {
+            String userId = resolveUserId(userIdHeader);
+            return ResponseEntity.ok(Map.of(
+                    "success", true,
+                    "data", expenseImportService.status(userId, importId)
+            ));
+        } catch (MongoConcurrencyLimiter.MongoSaturatedException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                    "success", false,
+                    "message", e.getMessage()
+            ));
+        }
+    }
 }
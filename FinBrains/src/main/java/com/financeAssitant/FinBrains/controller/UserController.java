@@ -1,9 +1,10 @@
 package com.financeAssitant.FinBrains.controller;
 
 import com.financeAssitant.FinBrains.dto.MonthlySummaryResponse;
+import com.financeAssitant.FinBrains.entity.MonthlyRollup;
 import com.financeAssitant.FinBrains.entity.User;
 import com.financeAssitant.FinBrains.repository.UserRepository;
-import com.financeAssitant.FinBrains.service.ExpenseService;
+import com.financeAssitant.FinBrains.service.MonthlyRollupService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -23,7 +24,7 @@ import java.util.Map;
 public class UserController {
 
     @Autowired
-    private ExpenseService expenseService;
+    private MonthlyRollupService monthlyRollupService;
 
     @Autowired
     private UserRepository userRepository;
@@ -52,8 +53,9 @@ public class UserController {
         }).orElse("User");
 
         YearMonth ym = YearMonth.now();
-        double income = expenseService.getMonthlyIncome(userId, ym);
-        double spent = expenseService.getMonthlySpent(userId, ym);
+        MonthlyRollup rollup = monthlyRollupService.get(userId, ym);
+        double income = rollup.getIncome();
+        double spent = rollup.getSpent();
         double balance = income - spent;
 
         MonthlySummaryResponse body = MonthlySummaryResponse.builder()
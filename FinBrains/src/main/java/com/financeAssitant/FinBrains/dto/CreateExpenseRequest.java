@@ -44,6 +44,9 @@ public class CreateExpenseRequest {
     private Boolean isRecurring;
     @JsonAlias({"frequency", "recurringFrequency"})
     private String recurringFrequency;
+    private Integer recurringInterval; // every N periods
+    private Integer recurringWeekOfMonth; // 1-5 or -1 (last), together with recurringDayOfWeek
+    private String recurringDayOfWeek; // MONDAY..SUNDAY
     private LocalDate startDate;
     private LocalDate endDate;
 
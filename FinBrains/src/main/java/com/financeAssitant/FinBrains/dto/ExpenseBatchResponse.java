@@ -0,0 +1,48 @@
+package com.financeAssitant.FinBrains.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Arrays;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExpenseBatchResponse {
+    private int succeeded;
+    private int failed;
+    private List<Item> results; // one per request item, in request order
+
+    public static ExpenseBatchResponse of(Item[] results) {
+        int ok = (int) Arrays.stream(results).filter(Item::isSuccess).count();
+        return new ExpenseBatchResponse(ok, results.length - ok, Arrays.asList(results));
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Item {
+        private int index;
+        private String id;
+        private boolean success;
+        private String message; // why the item failed
+        private ExpenseResponse data; // created or updated expense
+
+        public static Item succeeded(int index, ExpenseResponse data) {
+            return new Item(index, data.getId(), true, null, data);
+        }
+
+        public static Item succeeded(int index, String id) {
+            return new Item(index, id, true, null, null);
+        }
+
+        public static Item failed(int index, String id, String message) {
+            return new Item(index, id, false, message, null);
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.financeAssitant.FinBrains.dto;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+// One item of PUT /api/expenses/batch: the expense id plus the same optional fields as a single update
+@Data
+@EqualsAndHashCode(callSuper = true)
+@NoArgsConstructor
+public class ExpenseBatchUpdate extends UpdateExpenseRequest {
+    private String id;
+}
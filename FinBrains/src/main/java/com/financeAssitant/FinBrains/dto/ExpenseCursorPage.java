@@ -0,0 +1,19 @@
+package com.financeAssitant.FinBrains.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExpenseCursorPage {
+    private List<ExpenseResponse> content;
+    private String nextCursor; // null on the last page
+    private boolean hasMore;
+    private Long totalElements; // only when requested
+}
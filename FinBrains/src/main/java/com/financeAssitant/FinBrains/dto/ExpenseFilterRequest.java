@@ -4,6 +4,7 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -13,13 +14,15 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 public class ExpenseFilterRequest {
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
     private LocalDateTime startDate;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
     private LocalDateTime endDate;
     private String categoryId;
     private String paymentType;
     private Double minAmount;
     private Double maxAmount;
-    private String searchTerm;
+    private String searchTerm; // word-prefix match on description, tags and subcategory
     private List<String> tags;
 
     @Builder.Default
@@ -29,7 +32,7 @@ public class ExpenseFilterRequest {
     private Integer size = 20;
 
     @Builder.Default
-    private String sortBy = "date";
+    private String sortBy = "date"; // any expense field, or "relevance" together with searchTerm
 
     @Builder.Default
     private String sortDirection = "desc"; // desc or asc
@@ -24,6 +24,9 @@ public class ExpenseResponse {
     private java.util.List<String> tags;
     private Boolean isRecurring;
     private String recurringFrequency;
+    private Integer recurringInterval;
+    private Integer recurringWeekOfMonth;
+    private String recurringDayOfWeek;
     private LocalDateTime nextRunDate;
     private LocalDate startDate;
     private LocalDate endDate;
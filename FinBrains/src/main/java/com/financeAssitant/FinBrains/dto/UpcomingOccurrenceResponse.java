@@ -0,0 +1,22 @@
+package com.financeAssitant.FinBrains.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// A projected (not yet created) occurrence of a recurring expense
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UpcomingOccurrenceResponse {
+    private String templateId;
+    private String description;
+    private Double amount;
+    private String type;
+    private ExpenseResponse.CategoryResponse category;
+    private LocalDateTime date;
+}
@@ -40,6 +40,9 @@ public class UpdateExpenseRequest {
     private java.util.List<String> tags;
     private Boolean isRecurring;
     private String recurringFrequency;
+    private Integer recurringInterval; // every N periods
+    private Integer recurringWeekOfMonth; // 1-5 or -1 (last), together with recurringDayOfWeek
+    private String recurringDayOfWeek; // MONDAY..SUNDAY
     private java.time.LocalDate startDate;
     private java.time.LocalDate endDate;
 }
\ No newline at end of file
@@ -0,0 +1,45 @@
+package com.financeAssitant.FinBrains.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+// Progress of moving a deleted category's expenses; large categories are processed in the background
+@Document(collection = "category_delete_jobs")
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+public class CategoryDeleteJob {
+
+    public enum Status { RUNNING, DONE, FAILED }
+
+    @Id
+    private String id;
+
+    @Indexed
+    private String userId;
+
+    private String categoryId;
+    private String categoryName;
+    private String reassignTo; // target category id; null leaves the expenses uncategorized
+    private Status status;
+
+    @Builder.Default
+    private Long total = 0L; // expenses in the category when the delete started
+    @Builder.Default
+    private Long deleted = 0L;
+    @Builder.Default
+    private Long moved = 0L;
+    private String message; // set when the job failed
+
+    private LocalDateTime startedAt;
+    private LocalDateTime updatedAt;
+    private LocalDateTime finishedAt;
+}
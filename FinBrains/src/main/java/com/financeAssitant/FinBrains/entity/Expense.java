@@ -5,15 +5,35 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
-import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.DBRef;
+import org.springframework.data.mongodb.core.convert.LazyLoadingProxy;
 
 import java.time.LocalDateTime;
 import java.time.LocalDate;
 import java.util.List;
 
 @Document(collection = "expenses")
+@CompoundIndexes({
+        // userId + date range / newest-first listing and keyset paging on (date, _id); also serves userId-only lookups
+        @CompoundIndex(name = "user_date_id", def = "{ 'userId': 1, 'date': -1, '_id': -1 }"),
+        // category is a DBRef, so derived 'category.id' queries hit 'category.$id'
+        @CompoundIndex(name = "user_category_date", def = "{ 'userId': 1, 'category.$id': 1, 'date': -1 }"),
+        @CompoundIndex(name = "user_payment_date", def = "{ 'userId': 1, 'paymentMethod.type': 1, 'date': -1 }"),
+        // Multikey index for prefix search over description, tags and subcategory
+        @CompoundIndex(name = "user_search", def = "{ 'userId': 1, 'searchPrefixes': 1 }"),
+        // Scheduler pages due templates across all users in (nextDue, _id) order; only recurring templates are indexed
+        @CompoundIndex(name = "recurring_next_due_id", def = "{ 'recurring.nextDue': 1, '_id': 1 }",
+                partialFilter = "{ 'recurring.isRecurring': true }"),
+        // One occurrence per template and due date, so scheduler retries and concurrent runs cannot duplicate
+        @CompoundIndex(name = "uniq_recurring_occurrence", def = "{ 'recurring.recurringGroupId': 1 }", unique = true,
+                partialFilter = "{ 'recurring.recurringGroupId': { $exists: true } }"),
+        // Re-importing a statement cannot duplicate rows: one document per user and statement row key
+        @CompoundIndex(name = "uniq_user_import_key", def = "{ 'userId': 1, 'metadata.importKey': 1 }", unique = true,
+                partialFilter = "{ 'metadata.importKey': { $exists: true } }")
+})
 @Data
 @Builder
 @NoArgsConstructor
@@ -23,13 +43,15 @@ public class Expense {
     @Id
     private String id;
 
-    @Indexed
     private String userId; // Reference to User
 
     private Double amount;
     private String description;
-    @DBRef
+    // Kept for category.id queries; lazy so reading a page never fetches categories
+    @DBRef(lazy = true)
     private Category category;
+    // Embedded copy of the category used for responses; refreshed on save and on category rename
+    private CategoryRef categoryRef;
     private String subcategory;
     private LocalDateTime date;
     private PaymentMethod paymentMethod;
@@ -37,11 +59,28 @@ public class Expense {
     private Recurring recurring;
     private Metadata metadata;
 
+    // Lower-cased words of description/tags/subcategory and their prefixes; set on every save for search
+    private List<String> searchTokens;
+    private List<String> searchPrefixes;
+
     public enum ExpenseType { EXPENSE, INCOME }
 
     @Builder.Default
     private ExpenseType type = ExpenseType.EXPENSE;
 
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class CategoryRef {
+        private String id;
+        private String name;
+
+        public static CategoryRef of(Category category) {
+            return category != null ? new CategoryRef(category.getId(), category.getName()) : null;
+        }
+    }
+
     @Data
     @NoArgsConstructor
     @AllArgsConstructor
@@ -64,8 +103,12 @@ public class Expense {
         private Boolean isRecurring = false;
 
         private String frequency; // DAILY, WEEKLY, MONTHLY, QUARTERLY, YEARLY, CUSTOM
+        private Integer interval; // every N periods (CUSTOM without a weekday: every N days)
+        private Integer weekOfMonth; // with dayOfWeek: nth weekday of the month, -1 = last
+        private String dayOfWeek; // MONDAY..SUNDAY
+        private String timezone; // owner's zone when the schedule was set; dates are computed in it
         private LocalDateTime nextDue;
-        private String recurringGroupId;
+        private String recurringGroupId; // on generated occurrences: "<templateId>:<due date-time>"
         private LocalDate startDate;
         private LocalDate endDate;
     }
@@ -85,6 +128,9 @@ public class Expense {
 
         private Integer version;
 
+        private String importId; // ImportJob that created the document
+        private String importKey; // statement row identity (bank transaction id or row hash), for dedupe
+
         public Metadata() {
             this.createdAt = LocalDateTime.now();
             this.updatedAt = LocalDateTime.now();
@@ -94,6 +140,21 @@ public class Expense {
         }
     }
 
+    // Category id without loading the category: snapshot first, then the reference itself
+    public String categoryId() {
+        if (categoryRef != null && categoryRef.getId() != null) return categoryRef.getId();
+        if (category instanceof LazyLoadingProxy proxy) {
+            return proxy.toDBRef() != null ? String.valueOf(proxy.toDBRef().getId()) : null;
+        }
+        return category != null ? category.getId() : null;
+    }
+
+    // Category name from the snapshot; documents not migrated yet fall back to the reference
+    public String categoryName() {
+        if (categoryRef != null && categoryRef.getName() != null) return categoryRef.getName();
+        return category != null ? category.getName() : null;
+    }
+
     // Custom constructor with default values
     public Expense(String userId, Double amount, String description) {
         this.userId = userId;
@@ -0,0 +1,50 @@
+package com.financeAssitant.FinBrains.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// One statement upload; counters are updated after every written chunk so clients can poll progress
+@Document(collection = "import_jobs")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportJob {
+
+    public enum Status { RUNNING, DONE, FAILED }
+
+    @Id
+    private String id;
+
+    @Indexed
+    private String userId;
+
+    private String fileName;
+    private String format; // CSV, OFX
+    private Status status;
+
+    @Builder.Default
+    private Long rows = 0L; // rows read so far, including skipped ones
+    @Builder.Default
+    private Long imported = 0L;
+    @Builder.Default
+    private Long duplicates = 0L; // already imported earlier (same statement row key)
+    @Builder.Default
+    private Long failed = 0L; // rows that could not be parsed
+    @Builder.Default
+    private List<String> errors = new ArrayList<>(); // first few parse errors, with line numbers
+    private String message; // set when the whole import failed
+
+    private LocalDateTime startedAt;
+    private LocalDateTime updatedAt;
+    private LocalDateTime finishedAt;
+}
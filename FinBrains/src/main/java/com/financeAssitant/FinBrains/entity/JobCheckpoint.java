@@ -0,0 +1,55 @@
+package com.financeAssitant.FinBrains.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+// Progress of a batch job, saved after every page so an interrupted run resumes where it stopped
+@Document(collection = "job_checkpoints")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class JobCheckpoint {
+
+    public enum Status { RUNNING, DONE }
+
+    @Id
+    private String id; // job name
+
+    private Status status;
+    private LocalDateTime cutoff; // "now" fixed at the start of the run
+    private LocalDateTime lastKey; // keyset position of the last finished page
+    private String lastId;
+    @Builder.Default
+    private Long processed = 0L;
+
+    private LocalDateTime startedAt;
+    private LocalDateTime updatedAt;
+    private LocalDateTime finishedAt;
+
+    public static JobCheckpoint start(String job) {
+        LocalDateTime now = LocalDateTime.now();
+        return JobCheckpoint.builder().id(job).status(Status.RUNNING).startedAt(now).updatedAt(now).build();
+    }
+
+    // Records a finished batch ending at lastId
+    public JobCheckpoint advance(String lastId, long batchSize) {
+        this.lastId = lastId;
+        this.processed = (processed != null ? processed : 0L) + batchSize;
+        this.updatedAt = LocalDateTime.now();
+        return this;
+    }
+
+    public JobCheckpoint done() {
+        this.status = Status.DONE;
+        this.updatedAt = LocalDateTime.now();
+        this.finishedAt = updatedAt;
+        return this;
+    }
+}
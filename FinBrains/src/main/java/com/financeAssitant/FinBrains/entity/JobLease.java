@@ -0,0 +1,26 @@
+package com.financeAssitant.FinBrains.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+// Time-bounded ownership of a scheduled job, so only one app instance runs it at a time
+@Document(collection = "job_leases")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class JobLease {
+
+    @Id
+    private String id; // job name
+
+    private String owner; // instance id of the holder
+    private LocalDateTime expiresAt;
+    private LocalDateTime acquiredAt;
+}
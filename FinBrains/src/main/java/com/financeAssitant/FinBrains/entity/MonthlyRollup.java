@@ -0,0 +1,60 @@
+package com.financeAssitant.FinBrains.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.HashMap;
+import java.util.Map;
+
+// Materialized per-user, per-month totals kept in step with expense writes
+@Document(collection = "monthly_rollups")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MonthlyRollup {
+
+    // Key under which uncategorized EXPENSE totals are kept in categories
+    public static final String UNCATEGORIZED = "none";
+
+    @Id
+    private String id; // userId:YYYY-MM
+
+    @Indexed
+    private String userId;
+
+    // Format: YYYY-MM (e.g., 2025-11)
+    private String month;
+
+    @Builder.Default
+    private Double income = 0.0;
+
+    @Builder.Default
+    private Double spent = 0.0;
+
+    @Builder.Default
+    private Long count = 0L;
+
+    // EXPENSE totals keyed by category id
+    @Builder.Default
+    private Map<String, Double> categories = new HashMap<>();
+
+    private LocalDateTime updatedAt;
+
+    // Bumped by every $inc, so a rebuild can tell whether writes landed while it was aggregating
+    private Long revision;
+
+    // Created by a $inc upsert before the month was built from expenses: holds deltas only, rebuilt on read
+    private Boolean provisional;
+
+    public static String idOf(String userId, YearMonth ym) {
+        return userId + ":" + ym;
+    }
+}
@@ -0,0 +1,37 @@
+package com.financeAssitant.FinBrains.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// An expense write whose rollup and balance deltas have not all been applied yet. Opened before the expenses are
+// written and removed once the deltas landed, so rebuilds know not to store totals the deltas will change again.
+@Document(collection = "pending_totals")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PendingTotals {
+
+    @Id
+    private String id;
+
+    @Indexed
+    private String userId;
+
+    // YYYY-MM months the write touches; null for writes that may touch any month of the user
+    private List<String> months;
+
+    @Indexed
+    private LocalDateTime createdAt;
+
+    // The write threw part way; its totals are left for TotalsRepairSweeper
+    private Boolean failed;
+}
@@ -101,6 +101,9 @@ public class User {
         @Builder.Default
         private Boolean isActive = true;
 
+        // Default categories were created (signup or CategorySeeder backfill)
+        private Boolean categoriesSeeded;
+
         // Constructor to set timestamps
         public Metadata() {
             this.createdAt = LocalDateTime.now();
@@ -0,0 +1,41 @@
+package com.financeAssitant.FinBrains.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+// Running all-time totals per user, maintained on every expense write
+@Document(collection = "balances")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserBalance {
+
+    @Id
+    private String id; // same as User.id
+
+    @Builder.Default
+    private Double income = 0.0;
+
+    @Builder.Default
+    private Double expense = 0.0;
+
+    private LocalDateTime updatedAt;
+    private LocalDateTime reconciledAt;
+
+    // Bumped by every write, so a reconcile can tell whether deltas landed while it was reading history
+    private Long revision;
+
+    // Created by a delta upsert before the ledger was built from history: holds deltas only, rebuilt on read
+    private Boolean provisional;
+
+    public double getBalance() {
+        return (income != null ? income : 0.0) - (expense != null ? expense : 0.0);
+    }
+}
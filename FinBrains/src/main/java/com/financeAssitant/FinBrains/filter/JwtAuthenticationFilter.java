@@ -1,6 +1,7 @@
 package com.financeAssitant.FinBrains.filter;
 
 import com.financeAssitant.FinBrains.utility.JwtUtils;
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -27,32 +28,29 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                                     FilterChain filterChain) throws ServletException, IOException {
 
         String authHeader = request.getHeader("Authorization");
-        String jwt = null;
         String userId = null;
 
-        // Extract JWT from Authorization header
+        // Extract JWT from Authorization header; one parse verifies it and yields the claims
         if (authHeader != null && authHeader.startsWith("Bearer ")) {
-            jwt = authHeader.substring(7);
+            String jwt = authHeader.substring(7);
             try {
-                userId = jwtUtils.getUserIdFromJwtToken(jwt);
-            } catch (Exception e) {
-                logger.error("Cannot parse JWT token: ", e);
+                userId = jwtUtils.parseClaims(jwt).getSubject();
+            } catch (JwtException | IllegalArgumentException e) {
+                logger.debug("Rejected JWT token: " + e.getMessage());
             }
         }
 
-        // Validate token and set authentication
+        // Set authentication for a verified token
         if (userId != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            if (jwtUtils.validateJwtToken(jwt)) {
-                // Set user ID in request header for controllers
-                request.setAttribute("User-ID", userId);
+            // Set user ID in request header for controllers
+            request.setAttribute("User-ID", userId);
 
-                // Create authentication token
-                UsernamePasswordAuthenticationToken authToken =
-                        new UsernamePasswordAuthenticationToken(userId, null, new ArrayList<>());
-                authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+            // Create authentication token
+            UsernamePasswordAuthenticationToken authToken =
+                    new UsernamePasswordAuthenticationToken(userId, null, new ArrayList<>());
+            authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
 
-                SecurityContextHolder.getContext().setAuthentication(authToken);
-            }
+            SecurityContextHolder.getContext().setAuthentication(authToken);
         }
 
         filterChain.doFilter(request, response);
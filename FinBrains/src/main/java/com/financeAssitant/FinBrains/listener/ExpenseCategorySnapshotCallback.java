@@ -0,0 +1,32 @@
+package com.financeAssitant.FinBrains.listener;
+
+import com.financeAssitant.FinBrains.entity.Category;
+import com.financeAssitant.FinBrains.entity.Expense;
+import org.springframework.data.mongodb.core.convert.LazyLoadingProxy;
+import org.springframework.data.mongodb.core.mapping.event.BeforeConvertCallback;
+import org.springframework.stereotype.Component;
+
+import java.util.Objects;
+
+// Writes the embedded category snapshot from whatever category is set on the expense being saved
+@Component
+public class ExpenseCategorySnapshotCallback implements BeforeConvertCallback<Expense> {
+
+    @Override
+    public Expense onBeforeConvert(Expense expense, String collection) {
+        Category category = expense.getCategory();
+        if (category == null) {
+            expense.setCategoryRef(null);
+        } else if (category instanceof LazyLoadingProxy proxy) {
+            // Unchanged since it was loaded: keep the snapshot unless it is missing or stale
+            Expense.CategoryRef ref = expense.getCategoryRef();
+            String refId = proxy.toDBRef() != null ? String.valueOf(proxy.toDBRef().getId()) : null;
+            if (ref == null || !Objects.equals(ref.getId(), refId)) {
+                expense.setCategoryRef(Expense.CategoryRef.of((Category) proxy.getTarget()));
+            }
+        } else {
+            expense.setCategoryRef(Expense.CategoryRef.of(category));
+        }
+        return expense;
+    }
+}
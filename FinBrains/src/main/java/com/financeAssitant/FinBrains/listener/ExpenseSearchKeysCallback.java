@@ -0,0 +1,30 @@
+package com.financeAssitant.FinBrains.listener;
+
+import com.financeAssitant.FinBrains.entity.Expense;
+import com.financeAssitant.FinBrains.utility.SearchKeys;
+import org.springframework.data.mongodb.core.mapping.event.BeforeConvertCallback;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Keeps the search fields in step with description/tags/subcategory on every save, insert and replace
+@Component
+public class ExpenseSearchKeysCallback implements BeforeConvertCallback<Expense> {
+
+    @Override
+    public Expense onBeforeConvert(Expense expense, String collection) {
+        List<String> tokens = SearchKeys.tokens(searchableText(expense));
+        expense.setSearchTokens(tokens);
+        expense.setSearchPrefixes(SearchKeys.prefixes(tokens));
+        return expense;
+    }
+
+    public static List<String> searchableText(Expense expense) {
+        List<String> texts = new ArrayList<>();
+        texts.add(expense.getDescription());
+        texts.add(expense.getSubcategory());
+        if (expense.getTags() != null) texts.addAll(expense.getTags());
+        return texts;
+    }
+}
@@ -4,9 +4,12 @@ import com.financeAssitant.FinBrains.entity.Budget;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface BudgetRepository extends MongoRepository<Budget, String> {
     Optional<Budget> findByUserIdAndMonth(String userId, String month);
+    List<Budget> findByUserIdAndMonthIn(String userId, Collection<String> months);
 }
@@ -0,0 +1,12 @@
+package com.financeAssitant.FinBrains.repository;
+
+import com.financeAssitant.FinBrains.entity.CategoryDeleteJob;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface CategoryDeleteJobRepository extends MongoRepository<CategoryDeleteJob, String> {
+    Optional<CategoryDeleteJob> findByIdAndUserId(String id, String userId);
+}
@@ -8,16 +8,18 @@ import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface ExpenseRepository extends MongoRepository<Expense, String> {
+public interface ExpenseRepository extends MongoRepository<Expense, String>, ExpenseRepositoryCustom {
 
     // Basic queries
     List<Expense> findByUserIdOrderByDateDesc(String userId);
     Page<Expense> findByUserIdOrderByDateDesc(String userId, Pageable pageable);
     Optional<Expense> findByIdAndUserId(String id, String userId); // Security: user can only access their expenses
+    List<Expense> findByUserIdAndIdIn(String userId, Collection<String> ids);
 
     // Date range queries
     List<Expense> findByUserIdAndDateBetweenOrderByDateDesc(String userId, LocalDateTime startDate, LocalDateTime endDate);
@@ -26,7 +28,6 @@ public interface ExpenseRepository extends MongoRepository<Expense, String> {
     // Category queries (single embedded field category.id)
     List<Expense> findByUserIdAndCategory_IdOrderByDateDesc(String userId, String categoryId);
     Page<Expense> findByUserIdAndCategory_IdOrderByDateDesc(String userId, String categoryId, Pageable pageable);
-    List<Expense> findByCategory_Id(String categoryId);
     List<Expense> findByUserIdAndCategory_Id(String userId, String categoryId);
 
     // Amount range queries
@@ -35,23 +36,9 @@ public interface ExpenseRepository extends MongoRepository<Expense, String> {
     // Payment method queries
     List<Expense> findByUserIdAndPaymentMethod_TypeOrderByDateDesc(String userId, String paymentType);
 
-    // Search by description
-    @Query("{'userId': ?0, 'description': {$regex: ?1, $options: 'i'}}")
-    List<Expense> findByUserIdAndDescriptionContainingIgnoreCase(String userId, String searchTerm);
-
-    // Complex filtering query
-    @Query("{ 'userId': ?0, " +
-            "$and: [" +
-            "  { $or: [ { 'date': { $gte: ?1 } }, { ?1: null } ] }, " +
-            "  { $or: [ { 'date': { $lte: ?2 } }, { ?2: null } ] }, " +
-            "  { $or: [ { 'category.id': ?3 }, { ?3: null } ] }, " +
-            "  { $or: [ { 'amount': { $gte: ?4 } }, { ?4: null } ] }, " +
-            "  { $or: [ { 'amount': { $lte: ?5 } }, { ?5: null } ] }, " +
-            "  { $or: [ { 'description': { $regex: ?6, $options: 'i' } }, { ?6: null } ] } " +
-            "] }")
-    Page<Expense> findByUserIdWithFilters(String userId, LocalDateTime startDate, LocalDateTime endDate,
-                                          String categoryId, Double minAmount, Double maxAmount,
-                                          String searchTerm, Pageable pageable);
+    // Search by word prefixes of description/tags/subcategory (see SearchKeys.queryKeys)
+    @Query(value = "{'userId': ?0, 'searchPrefixes': {$all: ?1}}", sort = "{ 'date': -1 }")
+    List<Expense> findByUserIdAndSearchPrefixesAll(String userId, List<String> keys);
 
     // Aggregation queries for analytics
     @Query(value = "{ 'userId': ?0, 'date': { $gte: ?1, $lte: ?2 } }",
@@ -67,6 +54,7 @@ public interface ExpenseRepository extends MongoRepository<Expense, String> {
 
     // Delete queries
     void deleteByIdAndUserId(String id, String userId); // Security: user can only delete their expenses
+    long deleteByUserIdAndIdIn(String userId, Collection<String> ids);
     long deleteByUserIdAndDateBefore(String userId, LocalDateTime beforeDate); // Cleanup old expenses
     long deleteByUserIdAndCategory_IdAndDateBetween(String userId, String categoryId, LocalDateTime start, LocalDateTime end);
 
@@ -0,0 +1,69 @@
+package com.financeAssitant.FinBrains.repository;
+
+import com.financeAssitant.FinBrains.dto.ExpenseFilterRequest;
+import com.financeAssitant.FinBrains.entity.Expense;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
+// Queries that need MongoTemplate (aggregations) rather than derived/@Query methods
+public interface ExpenseRepositoryCustom {
+
+    // Filtered listing; only the filters actually set on the request become predicates
+    Page<Expense> findByFilters(String userId, ExpenseFilterRequest filter, Pageable pageable);
+
+    // Keyset page in (date desc, _id desc) order, starting strictly after (afterDate, afterId); filter may be null.
+    // A null afterDate with an afterId continues among the undated rows, which come last
+    List<Expense> findPageAfter(String userId, ExpenseFilterRequest filter, LocalDateTime afterDate, String afterId, int limit);
+
+    long countByFilters(String userId, ExpenseFilterRequest filter);
+
+    // Every match in date desc order, read lazily from a cursor batchSize documents at a time; close the stream
+    Stream<Expense> streamByFilters(String userId, ExpenseFilterRequest filter, int batchSize);
+
+    // Recurring templates due at or before cutoff, keyset-paged in (recurring.nextDue, _id) order after (afterDue, afterId)
+    List<Expense> findDueTemplatesAfter(LocalDateTime cutoff, LocalDateTime afterDue, String afterId, int limit);
+
+    // Sum of EXPENSE amount per calendar month (server time zone) in [start, end]
+    Map<YearMonth, Double> sumExpenseAmountByMonth(String userId, LocalDateTime start, LocalDateTime end);
+
+    // Totals per (month, type, category) used to (re)build monthly rollups; null bounds mean open-ended
+    List<MonthlyTotal> sumByMonthTypeAndCategory(String userId, LocalDateTime start, LocalDateTime end);
+
+    // The same totals restricted to one category (served by user_category_date)
+    List<MonthlyTotal> sumByMonthTypeInCategory(String userId, String categoryId);
+
+    // Expenses of the user dated in [from, to] with one of the given amounts (date, amount, type and description
+    // only): the rows a statement import could duplicate
+    List<Expense> findImportMatchCandidates(String userId, LocalDateTime from, LocalDateTime to, Collection<Double> amounts);
+
+    // Which of the given ids are expenses of the user (ids only, nothing else is fetched)
+    Set<String> findExistingIds(String userId, Collection<String> ids);
+
+    // Unordered bulk insert that skips documents rejected by a unique index (duplicate key); returns the ones inserted
+    List<Expense> insertIgnoringDuplicates(List<Expense> expenses);
+
+    // Replace the document only while metadata.version still equals expectedVersion; false if it changed meanwhile
+    boolean replaceIfVersion(Expense expense, Integer expectedVersion);
+
+    // replaceIfVersion for many documents in one unordered bulk write; the result says, per position, whether it
+    // was applied. Each expense already carries its new version, expected versions are given alongside.
+    boolean[] replaceAllIfVersion(List<Expense> expenses, List<Integer> expectedVersions);
+
+    // Unordered bulk insert; returns the error message per failed position, everything else was written
+    Map<Integer, String> insertAll(List<Expense> expenses);
+
+    // Deletes one document of the user and returns it, in a single findAndModify
+    Optional<Expense> deleteAndReturn(String id, String userId);
+
+    record MonthlyTotal(YearMonth month, Expense.ExpenseType type, String categoryId, double total, long count) {
+    }
+}
@@ -0,0 +1,358 @@
+package com.financeAssitant.FinBrains.repository;
+
+import com.financeAssitant.FinBrains.dto.ExpenseFilterRequest;
+import com.financeAssitant.FinBrains.entity.Expense;
+import com.financeAssitant.FinBrains.utility.SearchKeys;
+import com.mongodb.DBRef;
+import com.mongodb.bulk.BulkWriteError;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.util.StringUtils;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+@RequiredArgsConstructor
+public class ExpenseRepositoryCustomImpl implements ExpenseRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public Page<Expense> findByFilters(String userId, ExpenseFilterRequest filter, Pageable pageable) {
+        Criteria criteria = filterCriteria(userId, filter);
+        List<String> searchWords = filter != null && StringUtils.hasText(filter.getSearchTerm())
+                ? SearchKeys.tokens(List.of(filter.getSearchTerm()))
+                : List.of();
+        List<Expense> content = !searchWords.isEmpty() && "relevance".equalsIgnoreCase(filter.getSortBy())
+                ? findByRelevance(criteria, searchWords, pageable)
+                : mongoTemplate.find(Query.query(criteria).with(pageable), Expense.class);
+        // Count only runs when the page is full (or not the first one)
+        return PageableExecutionUtils.getPage(content, pageable,
+                () -> mongoTemplate.count(Query.query(criteria), Expense.class));
+    }
+
+    // Rank matches by how many search words appear as whole words, newest first within a rank
+    private List<Expense> findByRelevance(Criteria criteria, List<String> searchWords, Pageable pageable) {
+        AggregationOperation score = context -> new Document("$addFields", new Document("_score",
+                new Document("$size", new Document("$setIntersection",
+                        List.of(new Document("$ifNull", List.of("$searchTokens", List.of())), searchWords)))));
+        AggregationOperation sort = context -> new Document("$sort",
+                new Document("_score", -1).append("date", -1).append("_id", -1));
+        TypedAggregation<Expense> agg = Aggregation.newAggregation(Expense.class,
+                Aggregation.match(criteria),
+                score,
+                sort,
+                Aggregation.skip(pageable.getOffset()),
+                Aggregation.limit(pageable.getPageSize()));
+        return mongoTemplate.aggregate(agg, Expense.class).getMappedResults();
+    }
+
+    @Override
+    public List<Expense> findPageAfter(String userId, ExpenseFilterRequest filter, LocalDateTime afterDate, String afterId, int limit) {
+        Criteria criteria = filterCriteria(userId, filter);
+        if (afterId != null && afterDate != null) {
+            // Seek past the last row instead of skipping: (date < d) or (date == d and _id < id); undated rows
+            // sort after all dated ones in a descending listing, so they always follow
+            criteria.orOperator(
+                    Criteria.where("date").lt(afterDate),
+                    Criteria.where("date").is(afterDate).and("_id").lt(afterId),
+                    Criteria.where("date").is(null));
+        } else if (afterId != null) {
+            // Already among the undated rows, which are ordered by _id alone (andOperator: filters may constrain date)
+            criteria.andOperator(Criteria.where("date").is(null), Criteria.where("_id").lt(afterId));
+        }
+        Query query = Query.query(criteria)
+                .with(Sort.by(Sort.Direction.DESC, "date").and(Sort.by(Sort.Direction.DESC, "_id")))
+                .limit(limit);
+        return mongoTemplate.find(query, Expense.class);
+    }
+
+    @Override
+    public long countByFilters(String userId, ExpenseFilterRequest filter) {
+        return mongoTemplate.count(Query.query(filterCriteria(userId, filter)), Expense.class);
+    }
+
+    @Override
+    public Stream<Expense> streamByFilters(String userId, ExpenseFilterRequest filter, int batchSize) {
+        // date alone (no _id tiebreak) is served by both user_date_id and user_category_date, so no in-memory sort
+        Query query = Query.query(filterCriteria(userId, filter))
+                .with(Sort.by(Sort.Direction.DESC, "date"))
+                .cursorBatchSize(batchSize);
+        query.fields().exclude("searchTokens", "searchPrefixes");
+        return mongoTemplate.stream(query, Expense.class);
+    }
+
+    @Override
+    public List<Expense> findDueTemplatesAfter(LocalDateTime cutoff, LocalDateTime afterDue, String afterId, int limit) {
+        Criteria criteria = Criteria.where("recurring.isRecurring").is(true).and("recurring.nextDue").lte(cutoff);
+        if (afterDue != null && afterId != null) {
+            criteria.orOperator(
+                    Criteria.where("recurring.nextDue").gt(afterDue),
+                    Criteria.where("recurring.nextDue").is(afterDue).and("_id").gt(afterId));
+        }
+        Query query = Query.query(criteria)
+                .with(Sort.by(Sort.Direction.ASC, "recurring.nextDue").and(Sort.by(Sort.Direction.ASC, "_id")))
+                .limit(limit);
+        return mongoTemplate.find(query, Expense.class);
+    }
+
+    private Criteria filterCriteria(String userId, ExpenseFilterRequest filter) {
+        Criteria criteria = Criteria.where("userId").is(userId);
+        if (filter == null) return criteria;
+        if (filter.getStartDate() != null || filter.getEndDate() != null) {
+            Criteria date = criteria.and("date");
+            if (filter.getStartDate() != null) date.gte(filter.getStartDate());
+            if (filter.getEndDate() != null) date.lte(filter.getEndDate());
+        }
+        if (StringUtils.hasText(filter.getCategoryId())) {
+            criteria.and("category.id").is(filter.getCategoryId());
+        }
+        if (StringUtils.hasText(filter.getPaymentType())) {
+            criteria.and("paymentMethod.type").is(filter.getPaymentType());
+        }
+        if (filter.getMinAmount() != null || filter.getMaxAmount() != null) {
+            Criteria amount = criteria.and("amount");
+            if (filter.getMinAmount() != null) amount.gte(filter.getMinAmount());
+            if (filter.getMaxAmount() != null) amount.lte(filter.getMaxAmount());
+        }
+        if (filter.getTags() != null && !filter.getTags().isEmpty()) {
+            criteria.and("tags").in(filter.getTags());
+        }
+        if (StringUtils.hasText(filter.getSearchTerm())) {
+            List<String> keys = SearchKeys.queryKeys(filter.getSearchTerm());
+            if (!keys.isEmpty()) {
+                // Every word of the term must prefix-match a word of description/tags/subcategory (indexed)
+                criteria.and("searchPrefixes").all(keys);
+            } else {
+                // Only one-character words: match literally, never interpreted as a regex
+                criteria.and("description").regex(Pattern.compile(Pattern.quote(filter.getSearchTerm().trim()), Pattern.CASE_INSENSITIVE));
+            }
+        }
+        return criteria;
+    }
+
+    @Override
+    public Map<YearMonth, Double> sumExpenseAmountByMonth(String userId, LocalDateTime start, LocalDateTime end) {
+        // Dates are written as server-local LocalDateTime, so bucket months in the same zone
+        AggregationOperation groupByMonth = context -> new Document("$group",
+                new Document("_id", monthOf("$date"))
+                        .append("total", new Document("$sum", "$amount")));
+        TypedAggregation<Expense> agg = Aggregation.newAggregation(Expense.class,
+                Aggregation.match(userAndDateRange(userId, start, end)
+                        .and("type").ne(Expense.ExpenseType.INCOME.name())),
+                groupByMonth);
+
+        Map<YearMonth, Double> out = new HashMap<>();
+        for (Document row : mongoTemplate.aggregate(agg, Document.class).getMappedResults()) {
+            Object key = row.get("_id");
+            if (key == null) continue;
+            out.merge(YearMonth.parse(key.toString()), total(row), Double::sum);
+        }
+        return out;
+    }
+
+    @Override
+    public List<MonthlyTotal> sumByMonthTypeAndCategory(String userId, LocalDateTime start, LocalDateTime end) {
+        Criteria criteria = Criteria.where("userId").is(userId);
+        if (start != null && end != null) criteria = criteria.and("date").gte(start).lte(end);
+        else if (start != null) criteria = criteria.and("date").gte(start);
+        else if (end != null) criteria = criteria.and("date").lte(end);
+        return sumByMonthTypeAndCategory(criteria);
+    }
+
+    @Override
+    public List<MonthlyTotal> sumByMonthTypeInCategory(String userId, String categoryId) {
+        return sumByMonthTypeAndCategory(Criteria.where("userId").is(userId).and("category.id").is(categoryId));
+    }
+
+    private List<MonthlyTotal> sumByMonthTypeAndCategory(Criteria criteria) {
+        AggregationOperation group = context -> new Document("$group",
+                new Document("_id", new Document("month", monthOf("$date"))
+                        .append("type", "$type")
+                        .append("category", "$category"))
+                        .append("total", new Document("$sum", "$amount"))
+                        .append("count", new Document("$sum", 1)));
+        TypedAggregation<Expense> agg = Aggregation.newAggregation(Expense.class,
+                Aggregation.match(criteria),
+                group);
+
+        List<MonthlyTotal> out = new ArrayList<>();
+        for (Document row : mongoTemplate.aggregate(agg, Document.class).getMappedResults()) {
+            Document key = row.get("_id", Document.class);
+            if (key == null || key.get("month") == null) continue;
+            Expense.ExpenseType type = "INCOME".equals(key.get("type")) ? Expense.ExpenseType.INCOME : Expense.ExpenseType.EXPENSE;
+            Object count = row.get("count");
+            out.add(new MonthlyTotal(
+                    YearMonth.parse(key.get("month").toString()),
+                    type,
+                    categoryIdOf(key.get("category")),
+                    total(row),
+                    count instanceof Number n ? n.longValue() : 0L));
+        }
+        return out;
+    }
+
+    @Override
+    public List<Expense> findImportMatchCandidates(String userId, LocalDateTime from, LocalDateTime to, Collection<Double> amounts) {
+        // userId + date range is served by user_date_id; amount narrows the range in the fetch
+        Query query = Query.query(Criteria.where("userId").is(userId).and("date").gte(from).lte(to).and("amount").in(amounts));
+        query.fields().include("date").include("amount").include("type").include("description");
+        return mongoTemplate.find(query, Expense.class);
+    }
+
+    @Override
+    public Set<String> findExistingIds(String userId, Collection<String> ids) {
+        Query query = Query.query(Criteria.where("userId").is(userId).and("_id").in(ids));
+        query.fields().include("_id");
+        Set<String> existing = new HashSet<>();
+        mongoTemplate.find(query, Expense.class).forEach(e -> existing.add(e.getId()));
+        return existing;
+    }
+
+    @Override
+    public List<Expense> insertIgnoringDuplicates(List<Expense> expenses) {
+        if (expenses.isEmpty()) return new ArrayList<>();
+        assignIds(expenses);
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Expense.class)
+                    .insert(expenses)
+                    .execute();
+            return new ArrayList<>(expenses);
+        } catch (BulkOperationException e) {
+            Set<Integer> duplicates = new HashSet<>();
+            for (BulkWriteError error : e.getErrors()) {
+                if (error.getCode() != 11000) throw e;
+                duplicates.add(error.getIndex());
+            }
+            List<Expense> inserted = new ArrayList<>();
+            for (int i = 0; i < expenses.size(); i++) {
+                if (!duplicates.contains(i)) inserted.add(expenses.get(i));
+            }
+            return inserted;
+        }
+    }
+
+    @Override
+    public boolean replaceIfVersion(Expense expense, Integer expectedVersion) {
+        return mongoTemplate.findAndReplace(Query.query(versionCriteria(expense, expectedVersion)), expense) != null;
+    }
+
+    @Override
+    public boolean[] replaceAllIfVersion(List<Expense> expenses, List<Integer> expectedVersions) {
+        boolean[] applied = new boolean[expenses.size()];
+        if (expenses.isEmpty()) return applied;
+        BulkOperations ops = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Expense.class);
+        for (int i = 0; i < expenses.size(); i++) {
+            ops.replaceOne(Query.query(versionCriteria(expenses.get(i), expectedVersions.get(i))), expenses.get(i));
+        }
+        if (ops.execute().getMatchedCount() == expenses.size()) {
+            Arrays.fill(applied, true);
+            return applied;
+        }
+        // Some were changed concurrently: a document carries our write when it has our version and updatedAt
+        Map<String, Expense> current = new HashMap<>();
+        Query query = Query.query(Criteria.where("_id").in(expenses.stream().map(Expense::getId).toList()));
+        query.fields().include("metadata.version").include("metadata.updatedAt");
+        mongoTemplate.find(query, Expense.class).forEach(e -> current.put(e.getId(), e));
+        for (int i = 0; i < expenses.size(); i++) {
+            Expense mine = expenses.get(i);
+            Expense stored = current.get(mine.getId());
+            applied[i] = stored != null && stored.getMetadata() != null && mine.getMetadata() != null
+                    && Objects.equals(stored.getMetadata().getVersion(), mine.getMetadata().getVersion())
+                    && Objects.equals(stored.getMetadata().getUpdatedAt(), mine.getMetadata().getUpdatedAt());
+        }
+        return applied;
+    }
+
+    @Override
+    public Map<Integer, String> insertAll(List<Expense> expenses) {
+        Map<Integer, String> failed = new HashMap<>();
+        if (expenses.isEmpty()) return failed;
+        assignIds(expenses);
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Expense.class)
+                    .insert(expenses)
+                    .execute();
+        } catch (BulkOperationException e) {
+            for (BulkWriteError error : e.getErrors()) failed.put(error.getIndex(), error.getMessage());
+        }
+        return failed;
+    }
+
+    @Override
+    public Optional<Expense> deleteAndReturn(String id, String userId) {
+        return Optional.ofNullable(mongoTemplate.findAndRemove(
+                Query.query(Criteria.where("_id").is(id).and("userId").is(userId)), Expense.class));
+    }
+
+    // Bulk inserts do not write generated ids back to the entities, so they are assigned up front
+    private static void assignIds(List<Expense> expenses) {
+        for (Expense e : expenses) {
+            if (e.getId() == null) e.setId(new ObjectId().toHexString());
+        }
+    }
+
+    private static Criteria versionCriteria(Expense expense, Integer expectedVersion) {
+        Criteria criteria = Criteria.where("_id").is(expense.getId()).and("userId").is(expense.getUserId());
+        return expectedVersion != null
+                ? criteria.and("metadata.version").is(expectedVersion)
+                : criteria.and("metadata.version").exists(false);
+    }
+
+    private Criteria userAndDateRange(String userId, LocalDateTime start, LocalDateTime end) {
+        return Criteria.where("userId").is(userId).and("date").gte(start).lte(end);
+    }
+
+    private Document monthOf(String dateField) {
+        return new Document("$dateToString", new Document("format", "%Y-%m")
+                .append("date", dateField)
+                .append("timezone", mongoTimezone()));
+    }
+
+    private double total(Document row) {
+        Object v = row.get("total");
+        return v instanceof Number n ? n.doubleValue() : 0.0;
+    }
+
+    private String mongoTimezone() {
+        ZoneId zone = ZoneId.systemDefault();
+        if (zone instanceof ZoneOffset offset) {
+            return offset.getTotalSeconds() == 0 ? "UTC" : offset.getId();
+        }
+        return zone.getId();
+    }
+
+    // category is stored as a DBRef ({ $ref, $id }); the group key may come back decoded or raw
+    private String categoryIdOf(Object key) {
+        if (key instanceof DBRef ref) return String.valueOf(ref.getId());
+        if (key instanceof Document doc && doc.get("$id") != null) return String.valueOf(doc.get("$id"));
+        return null;
+    }
+}
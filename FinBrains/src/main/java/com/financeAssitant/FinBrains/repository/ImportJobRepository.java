@@ -0,0 +1,12 @@
+package com.financeAssitant.FinBrains.repository;
+
+import com.financeAssitant.FinBrains.entity.ImportJob;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface ImportJobRepository extends MongoRepository<ImportJob, String> {
+    Optional<ImportJob> findByIdAndUserId(String id, String userId);
+}
@@ -0,0 +1,9 @@
+package com.financeAssitant.FinBrains.repository;
+
+import com.financeAssitant.FinBrains.entity.JobCheckpoint;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface JobCheckpointRepository extends MongoRepository<JobCheckpoint, String> {
+}
@@ -0,0 +1,12 @@
+package com.financeAssitant.FinBrains.repository;
+
+import com.financeAssitant.FinBrains.entity.MonthlyRollup;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface MonthlyRollupRepository extends MongoRepository<MonthlyRollup, String> {
+    List<MonthlyRollup> findByUserId(String userId);
+}
@@ -0,0 +1,22 @@
+package com.financeAssitant.FinBrains.repository;
+
+import com.financeAssitant.FinBrains.entity.PendingTotals;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface PendingTotalsRepository extends MongoRepository<PendingTotals, String> {
+
+    // Writes still in flight for the user: not failed and not older than the given time
+    @Query("{ 'userId': ?0, 'failed': { $ne: true }, 'createdAt': { $gt: ?1 } }")
+    List<PendingTotals> findInFlight(String userId, LocalDateTime openedAfter);
+
+    // Failed writes and writes abandoned before the given time, whose users need their totals recomputed
+    @Query("{ $or: [ { 'failed': true }, { 'createdAt': { $lte: ?0 } } ] }")
+    List<PendingTotals> findUnfinished(LocalDateTime openedBefore, Pageable pageable);
+}
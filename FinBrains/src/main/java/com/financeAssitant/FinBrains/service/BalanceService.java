@@ -0,0 +1,171 @@
+package com.financeAssitant.FinBrains.service;
+
+import com.financeAssitant.FinBrains.entity.Expense;
+import com.financeAssitant.FinBrains.entity.UserBalance;
+import com.financeAssitant.FinBrains.repository.UserBalanceRepository;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+@Service
+@RequiredArgsConstructor
+public class BalanceService {
+
+    private static final Logger log = LoggerFactory.getLogger(BalanceService.class);
+    private static final int MAX_RECONCILE_ATTEMPTS = 5;
+
+    private final MongoTemplate mongoTemplate;
+    private final UserBalanceRepository balanceRepository;
+    private final TotalsJournal totalsJournal;
+
+    // A ledger that has never been built from history (absent or provisional) is built once
+    public double getBalance(String userId) {
+        UserBalance ledger = balanceRepository.findById(userId).orElse(null);
+        return (ledger != null && !Boolean.TRUE.equals(ledger.getProvisional()) ? ledger : build(userId)).getBalance();
+    }
+
+    // Apply one expense to the ledger with $inc (sign = 1 on insert, -1 on delete). A user without a ledger gets
+    // a provisional one, so a build running concurrently sees the revision change instead of missing the write.
+    public void apply(Expense expense, int sign) {
+        if (expense == null || expense.getUserId() == null) return;
+        double amt = sign * (expense.getAmount() != null ? expense.getAmount() : 0.0);
+        Update update = deltaUpdate(LocalDateTime.now())
+                .inc(expense.getType() == Expense.ExpenseType.INCOME ? "income" : "expense", amt);
+        mongoTemplate.upsert(Query.query(Criteria.where("_id").is(expense.getUserId())), update, UserBalance.class);
+    }
+
+    // Same as apply(e, 1) for many expenses: one $inc per user in a single unordered bulk write
+    public void applyAll(Collection<Expense> expenses) {
+        applyAll(List.of(), expenses);
+    }
+
+    // apply(e, -1) for every removed and apply(e, 1) for every added expense, in one unordered bulk write
+    public void applyAll(Collection<Expense> removed, Collection<Expense> added) {
+        Map<String, double[]> byUser = new HashMap<>();
+        collect(byUser, removed, -1);
+        collect(byUser, added, 1);
+        if (byUser.isEmpty()) return;
+        BulkOperations ops = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, UserBalance.class);
+        LocalDateTime now = LocalDateTime.now();
+        byUser.forEach((userId, totals) -> ops.upsert(Query.query(Criteria.where("_id").is(userId)),
+                deltaUpdate(now).inc("income", totals[0]).inc("expense", totals[1])));
+        ops.execute();
+    }
+
+    private static void collect(Map<String, double[]> byUser, Collection<Expense> expenses, int sign) {
+        for (Expense e : expenses) {
+            if (e.getUserId() == null) continue;
+            double[] totals = byUser.computeIfAbsent(e.getUserId(), k -> new double[2]);
+            totals[e.getType() == Expense.ExpenseType.INCOME ? 0 : 1] += sign * (e.getAmount() != null ? e.getAmount() : 0.0);
+        }
+    }
+
+    // Adds deltas to the user's ledger directly, for writes that change totals without single expenses in hand
+    public void adjust(String userId, double incomeDelta, double expenseDelta) {
+        if (userId == null || (incomeDelta == 0 && expenseDelta == 0)) return;
+        mongoTemplate.upsert(Query.query(Criteria.where("_id").is(userId)),
+                deltaUpdate(LocalDateTime.now()).inc("income", incomeDelta).inc("expense", expenseDelta),
+                UserBalance.class);
+    }
+
+    public void replace(Expense before, Expense after) {
+        apply(before, -1);
+        apply(after, 1);
+    }
+
+    // Recompute the ledger from history (also the first build of a user's ledger); see build()
+    public UserBalance reconcile(String userId) {
+        return build(userId);
+    }
+
+    // The totals are stored only if no expense write of the user was in flight before or after reading history
+    // (history may already hold expenses whose $inc is still to come) and the ledger's revision is still the one
+    // read before (no $inc landed meanwhile); otherwise history is read again. If it keeps changing the ledger
+    // computed from history is returned unstored (revision null) and the stored one is left as maintained by $inc.
+    private UserBalance build(String userId) {
+        for (int attempt = 1; ; attempt++) {
+            UserBalance current = balanceRepository.findById(userId).orElse(null);
+            boolean quiet = !totalsJournal.inFlight(userId, null);
+            double[] totals = totalsFromHistory(userId);
+            LocalDateTime now = LocalDateTime.now();
+            UserBalance built = UserBalance.builder()
+                    .id(userId)
+                    .income(totals[0])
+                    .expense(totals[1])
+                    .updatedAt(now)
+                    .reconciledAt(now)
+                    .build();
+            if (quiet && !totalsJournal.inFlight(userId, null)) {
+                UserBalance stored = store(built, current);
+                if (stored != null) return stored;
+            }
+            if (attempt >= MAX_RECONCILE_ATTEMPTS) {
+                log.warn("Balance of user {} kept changing while being rebuilt; served from history", userId);
+                return built;
+            }
+        }
+    }
+
+    // Inserts the built ledger, or replaces the stored one if its revision is unchanged; null when a write got there first
+    private UserBalance store(UserBalance built, UserBalance current) {
+        if (current == null) {
+            try {
+                built.setRevision(0L);
+                return mongoTemplate.insert(built);
+            } catch (DuplicateKeyException e) {
+                built.setRevision(null);
+                return null;
+            }
+        }
+        return mongoTemplate.findAndModify(
+                Query.query(Criteria.where("_id").is(built.getId()).and("revision").is(current.getRevision())),
+                new Update()
+                        .set("income", built.getIncome())
+                        .set("expense", built.getExpense())
+                        .set("updatedAt", built.getUpdatedAt())
+                        .set("reconciledAt", built.getReconciledAt())
+                        .unset("provisional")
+                        .inc("revision", 1),
+                FindAndModifyOptions.options().returnNew(true),
+                UserBalance.class);
+    }
+
+    // Common part of every $inc: revision bump, and the provisional flag when the upsert creates the ledger
+    private Update deltaUpdate(LocalDateTime now) {
+        return new Update()
+                .set("updatedAt", now)
+                .inc("revision", 1)
+                .setOnInsert("provisional", true);
+    }
+
+    // {income, expense} over the user's whole history, streaming only amount/type so memory stays flat
+    private double[] totalsFromHistory(String userId) {
+        Query query = Query.query(Criteria.where("userId").is(userId));
+        query.fields().include("amount").include("type");
+        double income = 0.0, expense = 0.0;
+        try (Stream<Expense> stream = mongoTemplate.stream(query, Expense.class)) {
+            var it = stream.iterator();
+            while (it.hasNext()) {
+                Expense e = it.next();
+                double amt = e.getAmount() != null ? e.getAmount() : 0.0;
+                if (e.getType() == Expense.ExpenseType.INCOME) income += amt; else expense += amt;
+            }
+        }
+        return new double[]{income, expense};
+    }
+}
@@ -1,10 +1,15 @@
 package com.financeAssitant.FinBrains.service;
 
 import com.financeAssitant.FinBrains.entity.Budget;
+import com.financeAssitant.FinBrains.entity.Category;
+import com.financeAssitant.FinBrains.entity.MonthlyRollup;
 import com.financeAssitant.FinBrains.repository.BudgetRepository;
+import com.financeAssitant.FinBrains.repository.CategoryRepository;
 import com.financeAssitant.FinBrains.repository.ExpenseRepository;
 import com.financeAssitant.FinBrains.entity.Expense;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
@@ -15,6 +20,8 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+// Every public method is timed as finbrains.service{class, method}
+@Timed("finbrains.service")
 @Service
 public class BudgetService {
 
@@ -24,6 +31,16 @@ public class BudgetService {
     @Autowired
     private ExpenseRepository expenseRepository;
 
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private MonthlyRollupService monthlyRollupService;
+
+    // Read totals from monthly rollups / $group aggregations; set to false to fall back to loading every expense of the month
+    @Value("${app.budget.aggregation.enabled:true}")
+    private boolean aggregationEnabled;
+
     public Budget setOrUpdateBudget(String userId, Double amount, YearMonth ym) {
         String monthKey = ym.toString(); // YYYY-MM
         Budget budget = budgetRepository.findByUserIdAndMonth(userId, monthKey)
@@ -46,12 +63,15 @@ public class BudgetService {
         LocalDateTime startDt = start.atStartOfDay();
         LocalDateTime endDt = endDay.atTime(23,59,59);
 
-        List<com.financeAssitant.FinBrains.entity.Expense> exps = expenseRepository.findByUserIdAndCurrentMonth(userId, startDt, endDt);
-        double spent = exps.stream()
-                .filter(e -> e.getType() == null || e.getType() == Expense.ExpenseType.EXPENSE)
-                .mapToDouble(e -> e.getAmount() != null ? e.getAmount() : 0.0)
-                .sum();
+        double spent = aggregationEnabled
+                ? monthlyRollupService.get(userId, ym).getSpent()
+                : sumSpentInJvm(userId, startDt, endDt);
         double budgetAmt = budget != null && budget.getAmount() != null ? budget.getAmount() : 0.0;
+        return statusOf(ym, budgetAmt, spent);
+    }
+
+    private Map<String, Object> statusOf(YearMonth ym, double budgetAmt, double spent) {
+        String monthKey = ym.toString();
         double remaining = budgetAmt - spent;
         double percentage = budgetAmt > 0 ? (spent / budgetAmt) * 100.0 : 0.0;
 
@@ -68,10 +88,32 @@ public class BudgetService {
 
     public List<Map<String, Object>> getHistory(String userId, YearMonth from, YearMonth to) {
         List<Map<String, Object>> list = new ArrayList<>();
-        YearMonth cur = from;
-        while (!cur.isAfter(to)) {
-            list.add(getStatus(userId, cur));
-            cur = cur.plusMonths(1);
+        if (!aggregationEnabled) {
+            YearMonth cur = from;
+            while (!cur.isAfter(to)) {
+                list.add(getStatus(userId, cur));
+                cur = cur.plusMonths(1);
+            }
+            return list;
+        }
+
+        // One budget query and one grouped aggregation for the whole range, regardless of its length
+        List<String> monthKeys = new ArrayList<>();
+        for (YearMonth cur = from; !cur.isAfter(to); cur = cur.plusMonths(1)) {
+            monthKeys.add(cur.toString());
+        }
+        if (monthKeys.isEmpty()) return list;
+
+        Map<String, Double> budgets = new HashMap<>();
+        for (Budget b : budgetRepository.findByUserIdAndMonthIn(userId, monthKeys)) {
+            budgets.put(b.getMonth(), b.getAmount() != null ? b.getAmount() : 0.0);
+        }
+        Map<YearMonth, Double> spentByMonth = expenseRepository.sumExpenseAmountByMonth(
+                userId, from.atDay(1).atStartOfDay(), to.atEndOfMonth().atTime(23,59,59));
+
+        for (String key : monthKeys) {
+            YearMonth ym = YearMonth.parse(key);
+            list.add(statusOf(ym, budgets.getOrDefault(key, 0.0), spentByMonth.getOrDefault(ym, 0.0)));
         }
         return list;
     }
@@ -79,16 +121,10 @@ public class BudgetService {
     public Map<String, Object> getCategoryBreakdown(String userId, YearMonth ym) {
         LocalDateTime startDt = ym.atDay(1).atStartOfDay();
         LocalDateTime endDt = ym.atEndOfMonth().atTime(23,59,59);
-        List<com.financeAssitant.FinBrains.entity.Expense> exps = expenseRepository.findByUserIdAndCurrentMonth(userId, startDt, endDt);
-        Map<String, Double> byCat = new HashMap<>();
-        double total = 0.0;
-        for (var e : exps) {
-            if (e.getType() != null && e.getType() == Expense.ExpenseType.INCOME) continue; // ignore INCOME for budgets
-            String name = e.getCategory() != null ? (e.getCategory().getName() != null ? e.getCategory().getName() : "Uncategorized") : "Uncategorized";
-            double amt = e.getAmount() != null ? e.getAmount() : 0.0;
-            byCat.put(name, byCat.getOrDefault(name, 0.0) + amt);
-            total += amt;
-        }
+        Map<String, Double> byCat = aggregationEnabled
+                ? sumByCategoryName(monthlyRollupService.get(userId, ym).getCategories())
+                : sumByCategoryNameInJvm(userId, startDt, endDt);
+        double total = byCat.values().stream().mapToDouble(Double::doubleValue).sum();
         List<Map<String,Object>> items = new ArrayList<>();
         for (var entry : byCat.entrySet()) {
             Map<String,Object> row = new HashMap<>();
@@ -102,4 +138,39 @@ public class BudgetService {
         out.put("items", items);
         return out;
     }
+
+    // Category totals come keyed by id; resolve names with a single lookup
+    private Map<String, Double> sumByCategoryName(Map<String, Double> byId) {
+        Map<String, String> names = new HashMap<>();
+        List<String> ids = byId.keySet().stream().filter(id -> !MonthlyRollup.UNCATEGORIZED.equals(id)).toList();
+        for (Category c : categoryRepository.findAllById(ids)) {
+            names.put(c.getId(), c.getName());
+        }
+        Map<String, Double> byCat = new HashMap<>();
+        for (var entry : byId.entrySet()) {
+            String name = names.get(entry.getKey());
+            byCat.merge(name != null ? name : "Uncategorized", entry.getValue(), Double::sum);
+        }
+        return byCat;
+    }
+
+    private double sumSpentInJvm(String userId, LocalDateTime startDt, LocalDateTime endDt) {
+        List<Expense> exps = expenseRepository.findByUserIdAndCurrentMonth(userId, startDt, endDt);
+        return exps.stream()
+                .filter(e -> e.getType() == null || e.getType() == Expense.ExpenseType.EXPENSE)
+                .mapToDouble(e -> e.getAmount() != null ? e.getAmount() : 0.0)
+                .sum();
+    }
+
+    private Map<String, Double> sumByCategoryNameInJvm(String userId, LocalDateTime startDt, LocalDateTime endDt) {
+        List<Expense> exps = expenseRepository.findByUserIdAndCurrentMonth(userId, startDt, endDt);
+        Map<String, Double> byCat = new HashMap<>();
+        for (var e : exps) {
+            if (e.getType() != null && e.getType() == Expense.ExpenseType.INCOME) continue; // ignore INCOME for budgets
+            String name = e.categoryName() != null ? e.categoryName() : "Uncategorized";
+            double amt = e.getAmount() != null ? e.getAmount() : 0.0;
+            byCat.put(name, byCat.getOrDefault(name, 0.0) + amt);
+        }
+        return byCat;
+    }
 }
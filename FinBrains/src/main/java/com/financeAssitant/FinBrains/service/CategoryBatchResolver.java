@@ -0,0 +1,35 @@
+package com.financeAssitant.FinBrains.service;
+
+import com.financeAssitant.FinBrains.entity.Category;
+import com.financeAssitant.FinBrains.entity.Expense;
+import com.financeAssitant.FinBrains.repository.CategoryRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+// Loads, with one query, the categories of expenses that have no embedded snapshot yet
+@Component
+@RequiredArgsConstructor
+public class CategoryBatchResolver {
+
+    private final CategoryRepository categoryRepository;
+
+    // Identity map (category id -> category) for a page or list being mapped to responses
+    public Map<String, Category> resolve(Collection<Expense> expenses) {
+        Set<String> missing = new HashSet<>();
+        for (Expense e : expenses) {
+            if (e.getCategoryRef() != null && e.getCategoryRef().getName() != null) continue;
+            String id = e.categoryId();
+            if (id != null) missing.add(id);
+        }
+        if (missing.isEmpty()) return Map.of();
+        Map<String, Category> byId = new HashMap<>();
+        categoryRepository.findAllById(missing).forEach(c -> byId.put(c.getId(), c));
+        return byId;
+    }
+}
@@ -0,0 +1,55 @@
+package com.financeAssitant.FinBrains.service;
+
+import com.financeAssitant.FinBrains.entity.Category;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Function;
+
+// Bounded per-user cache of a user's categories. Writes through CategoryService invalidate the user's entry;
+// the TTL bounds staleness for changes made by other instances.
+@Component
+public class CategoryCache implements MeterBinder {
+
+    private final Cache<String, List<Category>> byUser;
+
+    public CategoryCache(@Value("${app.categories.cache.max-users:10000}") long maxUsers,
+                         @Value("${app.categories.cache.ttl:10m}") Duration ttl) {
+        this.byUser = Caffeine.newBuilder()
+                .maximumSize(maxUsers)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    public List<Category> get(String userId, Function<String, List<Category>> loader) {
+        return byUser.get(userId, id -> List.copyOf(loader.apply(id)));
+    }
+
+    public void invalidate(String userId) {
+        byUser.invalidate(userId);
+    }
+
+    // Hit/miss/eviction counters since startup
+    public CacheStats stats() {
+        return byUser.stats();
+    }
+
+    public long size() {
+        return byUser.estimatedSize();
+    }
+
+    // Exposes the stats above as cache.gets/cache.evictions/cache.size{cache="categories"}
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, byUser, "categories");
+    }
+}
@@ -0,0 +1,143 @@
+package com.financeAssitant.FinBrains.service;
+
+import com.financeAssitant.FinBrains.entity.Category;
+import com.financeAssitant.FinBrains.entity.CategoryDeleteJob;
+import com.financeAssitant.FinBrains.entity.Expense;
+import com.financeAssitant.FinBrains.repository.ExpenseRepository;
+import com.financeAssitant.FinBrains.repository.ExpenseRepositoryCustom.MonthlyTotal;
+import com.mongodb.client.result.UpdateResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+// Moves the expenses of a deleted category with server-side multi-document writes, a chunk of ids at a time,
+// and adjusts rollups and balance from one aggregation instead of rebuilding them
+@Component
+public class CategoryDeletionWorker {
+
+    private static final Logger log = LoggerFactory.getLogger(CategoryDeletionWorker.class);
+
+    private final ExpenseRepository expenseRepository;
+    private final MonthlyRollupService monthlyRollupService;
+    private final BalanceService balanceService;
+    private final TotalsJournal totalsJournal;
+    private final MongoTemplate mongoTemplate;
+    private final int chunkSize;
+
+    public CategoryDeletionWorker(ExpenseRepository expenseRepository, MonthlyRollupService monthlyRollupService,
+                                  BalanceService balanceService, TotalsJournal totalsJournal, MongoTemplate mongoTemplate,
+                                  @Value("${app.categories.delete.chunk-size:5000}") int chunkSize) {
+        this.expenseRepository = expenseRepository;
+        this.monthlyRollupService = monthlyRollupService;
+        this.balanceService = balanceService;
+        this.totalsJournal = totalsJournal;
+        this.mongoTemplate = mongoTemplate;
+        this.chunkSize = Math.max(1, chunkSize);
+    }
+
+    @Async
+    public void runAsync(CategoryDeleteJob job, Category target) {
+        run(job, target);
+    }
+
+    // The category document is already gone, so no new expense can reference it while this runs.
+    // Without a target, expenses of the current month are deleted and older ones become uncategorized;
+    // with a target every expense moves to it.
+    public CategoryDeleteJob run(CategoryDeleteJob job, Category target) {
+        String userId = job.getUserId();
+        String categoryId = job.getCategoryId();
+        try {
+            // The job may touch any month of the user; rebuilds of them wait until its deltas are applied
+            totalsJournal.writeAll(userId, () -> {
+                YearMonth current = YearMonth.from(job.getStartedAt());
+                List<MonthlyTotal> deletedTotals = new ArrayList<>();
+                List<MonthlyTotal> movedTotals = new ArrayList<>();
+                for (MonthlyTotal t : expenseRepository.sumByMonthTypeInCategory(userId, categoryId)) {
+                    (target == null && t.month().equals(current) ? deletedTotals : movedTotals).add(t);
+                }
+
+                if (target == null) {
+                    job.setDeleted(expenseRepository.deleteByUserIdAndCategory_IdAndDateBetween(userId, categoryId,
+                            current.atDay(1).atStartOfDay(), current.atEndOfMonth().atTime(23, 59, 59)));
+                }
+
+                // Version bump makes in-flight optimistic updates of these expenses retry instead of restoring
+                // the category
+                Update update = target == null
+                        ? new Update().unset("category").unset("categoryRef")
+                        : new Update().set("category", mongoTemplate.getConverter().toDBRef(target, null))
+                                .set("categoryRef", Expense.CategoryRef.of(target));
+                update.inc("metadata.version", 1).set("metadata.updatedAt", LocalDateTime.now());
+
+                long moved = 0;
+                while (true) {
+                    Query page = Query.query(inCategory(userId, categoryId)).limit(chunkSize);
+                    page.fields().include("_id");
+                    List<String> ids = mongoTemplate.find(page, Expense.class).stream().map(Expense::getId).toList();
+                    if (ids.isEmpty()) break;
+                    UpdateResult result = mongoTemplate.updateMulti(
+                            Query.query(inCategory(userId, categoryId).and("_id").in(ids)), update, Expense.class);
+                    moved += result.getModifiedCount();
+                    job.setMoved(moved);
+                    saveProgress(job);
+                    if (ids.size() < chunkSize || result.getMatchedCount() == 0) break;
+                }
+
+                monthlyRollupService.removeCategory(userId, categoryId, target != null ? target.getId() : null,
+                        deletedTotals, movedTotals);
+                double income = 0, expense = 0;
+                for (MonthlyTotal t : deletedTotals) {
+                    if (t.type() == Expense.ExpenseType.INCOME) income += t.total(); else expense += t.total();
+                }
+                balanceService.adjust(userId, -income, -expense);
+                return null;
+            });
+            return finish(job, CategoryDeleteJob.Status.DONE, null);
+        } catch (RuntimeException e) {
+            log.warn("Deleting category {} of user {} failed after {} moved: {}", categoryId, userId, job.getMoved(), e.getMessage());
+            try {
+                // Part of the writes happened; recompute totals rather than leave them half adjusted
+                monthlyRollupService.rebuild(userId);
+                balanceService.reconcile(userId);
+            } catch (RuntimeException repair) {
+                log.warn("Totals repair for user {} failed: {}", userId, repair.getMessage());
+            }
+            return finish(job, CategoryDeleteJob.Status.FAILED, e.getMessage());
+        }
+    }
+
+    private static Criteria inCategory(String userId, String categoryId) {
+        return Criteria.where("userId").is(userId).and("category.id").is(categoryId);
+    }
+
+    private void saveProgress(CategoryDeleteJob job) {
+        mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(job.getId())),
+                new Update().set("deleted", job.getDeleted()).set("moved", job.getMoved())
+                        .set("updatedAt", LocalDateTime.now()), CategoryDeleteJob.class);
+    }
+
+    private CategoryDeleteJob finish(CategoryDeleteJob job, CategoryDeleteJob.Status status, String message) {
+        LocalDateTime now = LocalDateTime.now();
+        job.setStatus(status);
+        job.setMessage(message);
+        job.setUpdatedAt(now);
+        job.setFinishedAt(now);
+        try {
+            return mongoTemplate.save(job);
+        } catch (RuntimeException e) {
+            log.warn("Could not record the end of category delete {}: {}", job.getId(), e.getMessage());
+            return job;
+        }
+    }
+}
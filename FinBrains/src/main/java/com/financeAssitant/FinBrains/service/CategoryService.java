@@ -1,15 +1,31 @@
 package com.financeAssitant.FinBrains.service;
 
 import com.financeAssitant.FinBrains.entity.Category;
+import com.financeAssitant.FinBrains.entity.CategoryDeleteJob;
+import com.financeAssitant.FinBrains.entity.User;
+import com.financeAssitant.FinBrains.repository.CategoryDeleteJobRepository;
 import com.financeAssitant.FinBrains.repository.CategoryRepository;
 import com.financeAssitant.FinBrains.repository.ExpenseRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.Optional;
 import java.time.LocalDateTime;
-import java.time.YearMonth;
+import java.util.regex.Pattern;
 
 @Service
 @RequiredArgsConstructor
@@ -17,28 +33,82 @@ public class CategoryService {
 
     private final CategoryRepository categoryRepository;
     private final ExpenseRepository expenseRepository;
+    private final CategorySnapshotPropagator categorySnapshotPropagator;
+    private final CategoryCache categoryCache;
+    private final MongoTemplate mongoTemplate;
+    private final CategoryDeleteJobRepository deleteJobRepository;
+    private final CategoryDeletionWorker categoryDeletionWorker;
+
+    // Categories with more expenses than this are deleted in the background
+    @Value("${app.categories.delete.async-threshold:5000}")
+    private long asyncThreshold;
+
+    // Created for every user at signup; 'Monthly Income' is mandatory for INCOME entries
+    private static final List<String> DEFAULT_CATEGORIES = List.of("Food", "Travel", "Shopping", "Monthly Income");
 
     public List<Category> getAll(String userId) {
-        // Seed defaults for this user if missing
-        List<String> defaults = List.of("Food", "Travel", "Shopping");
-        defaults.forEach(name -> {
-            if (!categoryRepository.existsByUserIdAndNameIgnoreCase(userId, name)) {
-                categoryRepository.save(Category.builder()
-                        .userId(userId)
-                        .name(name)
-                        .isPredefined(true)
-                        .build());
-            }
-        });
-        // Ensure mandatory Monthly Income category exists
-        if (!categoryRepository.existsByUserIdAndNameIgnoreCase(userId, "Monthly Income")) {
-            categoryRepository.save(Category.builder()
-                    .userId(userId)
-                    .name("Monthly Income")
-                    .isPredefined(true)
-                    .build());
+        return categoryCache.get(userId, this::loadAll);
+    }
+
+    // Case-insensitive lookup among the user's categories, served from the cache
+    public Optional<Category> findByName(String userId, String name) {
+        return getAll(userId).stream()
+                .filter(c -> c.getName() != null && c.getName().equalsIgnoreCase(name))
+                .findFirst();
+    }
+
+    // The user's own categories come from the cache; global/predefined ones are looked up by id
+    public Optional<Category> findById(String userId, String id) {
+        Optional<Category> own = getAll(userId).stream().filter(c -> id.equals(c.getId())).findFirst();
+        return own.isPresent() ? own : categoryRepository.findById(id);
+    }
+
+    // Categories by id for a batch write: the user's own from the cache, any others (global) with one query
+    public Map<String, Category> findAllById(String userId, Collection<String> ids) {
+        Map<String, Category> byId = new HashMap<>();
+        Set<String> missing = new HashSet<>(ids);
+        for (Category c : getAll(userId)) {
+            if (missing.remove(c.getId())) byId.put(c.getId(), c);
+        }
+        if (!missing.isEmpty()) categoryRepository.findAllById(missing).forEach(c -> byId.put(c.getId(), c));
+        return byId;
+    }
+
+    private List<Category> loadAll(String userId) {
+        List<Category> categories = categoryRepository.findByUserIdOrderByNameAsc(userId);
+        // Guard for a user not reached by signup seeding or the backfill yet (Monthly Income can never be deleted)
+        if (categories.isEmpty()) {
+            upsertDefaults(userId);
+            categories = categoryRepository.findByUserIdOrderByNameAsc(userId);
+        }
+        return categories;
+    }
+
+    // Idempotent: one unordered bulk upsert of the default categories, then mark the user as seeded
+    public void seedDefaults(String userId) {
+        upsertDefaults(userId);
+        mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(userId)),
+                new Update().set("metadata.categoriesSeeded", true), User.class);
+        categoryCache.invalidate(userId);
+    }
+
+    private void upsertDefaults(String userId) {
+        BulkOperations ops = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Category.class);
+        for (String name : DEFAULT_CATEGORIES) {
+            ops.upsert(Query.query(Criteria.where("userId").is(userId)
+                            .and("name").regex("^" + Pattern.quote(name) + "$", "i")),
+                    new Update()
+                            .setOnInsert("name", name)
+                            .setOnInsert("isPredefined", true)
+                            .setOnInsert("createdAt", LocalDateTime.now()));
+        }
+        try {
+            ops.execute();
+        } catch (BulkOperationException e) {
+            // A concurrent seed inserted the same names first (uniq_user_name); anything else is a real failure
+            boolean onlyDuplicates = e.getErrors().stream().allMatch(err -> err.getCode() == 11000);
+            if (!onlyDuplicates) throw e;
         }
-        return categoryRepository.findByUserIdOrderByNameAsc(userId);
     }
 
     public Category create(String userId, String name, boolean isPredefined) {
@@ -53,10 +123,39 @@ public class CategoryService {
                 .name(name.trim())
                 .isPredefined(isPredefined)
                 .build();
-        return categoryRepository.save(category);
+        Category saved = categoryRepository.save(category);
+        categoryCache.invalidate(userId);
+        return saved;
     }
 
-    public void delete(String userId, String id) {
+    public Category rename(String userId, String id, String name) {
+        if (!StringUtils.hasText(name)) {
+            throw new IllegalArgumentException("Category name is required");
+        }
+        Category cat = categoryRepository.findById(id)
+                .orElseThrow(() -> new IllegalArgumentException("Category not found"));
+        if (!userId.equals(cat.getUserId())) {
+            throw new IllegalArgumentException("You cannot rename categories of another user");
+        }
+        if ("Monthly Income".equalsIgnoreCase(cat.getName())) {
+            throw new IllegalArgumentException("'Monthly Income' category cannot be renamed");
+        }
+        String trimmed = name.trim();
+        if (trimmed.equals(cat.getName())) return cat;
+        if (!trimmed.equalsIgnoreCase(cat.getName()) && categoryRepository.existsByUserIdAndNameIgnoreCase(userId, trimmed)) {
+            throw new IllegalArgumentException("Category with the same name already exists");
+        }
+        cat.setName(trimmed);
+        Category saved = categoryRepository.save(cat);
+        categoryCache.invalidate(userId);
+        // Expense snapshots catch up in the background
+        categorySnapshotPropagator.propagateRename(userId, id);
+        return saved;
+    }
+
+    // The category document goes first so no new expense can reference it; its expenses are then moved with
+    // server-side multi-updates, inline for small categories and in the background above the threshold
+    public CategoryDeleteJob delete(String userId, String id, String reassignTo) {
         // Ensure category belongs to user
         Category cat = categoryRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Category not found"));
@@ -66,26 +165,45 @@ public class CategoryService {
         if ("Monthly Income".equalsIgnoreCase(cat.getName())) {
             throw new IllegalArgumentException("'Monthly Income' category cannot be deleted");
         }
-        // Determine current month window
-        YearMonth ym = YearMonth.now();
-        LocalDateTime start = ym.atDay(1).atStartOfDay();
-        LocalDateTime end = ym.atEndOfMonth().atTime(23, 59, 59);
-
-        // 1) Delete expenses in current month with this category
-        expenseRepository.deleteByUserIdAndCategory_IdAndDateBetween(userId, id, start, end);
-
-        // 2) For expenses outside current month, remove the category reference
-        var allWithCategory = expenseRepository.findByUserIdAndCategory_Id(userId, id);
-        allWithCategory.forEach(expense -> {
-            LocalDateTime d = expense.getDate();
-            boolean inCurrent = d != null && !d.isBefore(start) && !d.isAfter(end);
-            if (!inCurrent && expense.getCategory() != null && id.equals(expense.getCategory().getId())) {
-                expense.setCategory(null);
+        Category target = null;
+        if (StringUtils.hasText(reassignTo)) {
+            if (reassignTo.equals(id)) {
+                throw new IllegalArgumentException("Cannot reassign expenses to the category being deleted");
+            }
+            target = findById(userId, reassignTo)
+                    .filter(c -> c.getUserId() == null || userId.equals(c.getUserId()))
+                    .orElseThrow(() -> new IllegalArgumentException("Target category not found"));
+            if ("Monthly Income".equalsIgnoreCase(target.getName())) {
+                throw new IllegalArgumentException("Expenses cannot be reassigned to 'Monthly Income'");
             }
-        });
-        expenseRepository.saveAll(allWithCategory);
+        }
+
+        long total = expenseRepository.countByUserIdAndCategory_Id(userId, id);
+        LocalDateTime now = LocalDateTime.now();
+        CategoryDeleteJob job = deleteJobRepository.save(CategoryDeleteJob.builder()
+                .userId(userId)
+                .categoryId(id)
+                .categoryName(cat.getName())
+                .reassignTo(target != null ? target.getId() : null)
+                .status(CategoryDeleteJob.Status.RUNNING)
+                .total(total)
+                .startedAt(now)
+                .updatedAt(now)
+                .build());
 
-        // Finally delete the category
         categoryRepository.deleteById(id);
+        categoryCache.invalidate(userId);
+
+        if (total <= asyncThreshold) {
+            return categoryDeletionWorker.run(job, target);
+        }
+        // The worker keeps updating its job while the response is serialized, so it gets its own copy
+        categoryDeletionWorker.runAsync(job.toBuilder().build(), target);
+        return job;
+    }
+
+    public CategoryDeleteJob deletionStatus(String userId, String jobId) {
+        return deleteJobRepository.findByIdAndUserId(jobId, userId)
+                .orElseThrow(() -> new IllegalArgumentException("Category delete job not found"));
     }
 }
@@ -0,0 +1,57 @@
+package com.financeAssitant.FinBrains.service;
+
+import com.financeAssitant.FinBrains.entity.Category;
+import com.financeAssitant.FinBrains.entity.Expense;
+import com.mongodb.client.result.UpdateResult;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+// Rewrites embedded category snapshots after a rename, off the request thread
+@Component
+@RequiredArgsConstructor
+public class CategorySnapshotPropagator {
+
+    private static final Logger log = LoggerFactory.getLogger(CategorySnapshotPropagator.class);
+    private static final int MAX_ATTEMPTS = 5;
+
+    private final MongoTemplate mongoTemplate;
+
+    // Tasks of quick successive renames may run in any order, so none trusts the name it was given: each writes
+    // the category's current name and re-reads it afterwards, catching up with a rename that landed meanwhile
+    @Async
+    public void propagateRename(String userId, String categoryId) {
+        try {
+            String name = currentName(categoryId);
+            for (int attempt = 0; name != null && attempt < MAX_ATTEMPTS; attempt++) {
+                // category.id narrows through the user_category_date index; only documents that already carry a snapshot are touched
+                Query query = Query.query(Criteria.where("userId").is(userId)
+                        .and("category.id").is(categoryId)
+                        .and("categoryRef.id").is(categoryId)
+                        .and("categoryRef.name").ne(name));
+                UpdateResult result = mongoTemplate.updateMulti(query, new Update().set("categoryRef.name", name), Expense.class);
+                log.debug("Renamed category {} on {} expenses", categoryId, result.getModifiedCount());
+                String after = currentName(categoryId);
+                if (name.equals(after)) return;
+                name = after;
+            }
+            if (name != null) log.warn("Category {} kept being renamed; its expense snapshots may lag", categoryId);
+        } catch (RuntimeException e) {
+            log.warn("Category rename propagation failed for {}: {}", categoryId, e.getMessage());
+        }
+    }
+
+    // Null once the category is gone; its deletion moves the expenses instead
+    private String currentName(String categoryId) {
+        Query query = Query.query(Criteria.where("_id").is(categoryId));
+        query.fields().include("name");
+        Category category = mongoTemplate.findOne(query, Category.class);
+        return category != null ? category.getName() : null;
+    }
+}
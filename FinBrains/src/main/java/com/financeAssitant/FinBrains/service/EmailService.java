@@ -1,5 +1,9 @@
 package com.financeAssitant.FinBrains.service;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.mail.SimpleMailMessage;
 import org.springframework.mail.javamail.JavaMailSender;
@@ -8,7 +12,10 @@ import org.springframework.stereotype.Service;
 @Service
 public class EmailService {
 
+    private static final Logger log = LoggerFactory.getLogger(EmailService.class);
+
     private final JavaMailSender mailSender;
+    private final MeterRegistry meterRegistry;
 
     @Value("${app.backend.url:http://localhost:8080}")
     private String backendUrl;
@@ -16,8 +23,9 @@ public class EmailService {
     @Value("${app.frontend.url:http://localhost:5173}")
     private String frontendUrl;
 
-    public EmailService(JavaMailSender mailSender) {
+    public EmailService(JavaMailSender mailSender, MeterRegistry meterRegistry) {
         this.mailSender = mailSender;
+        this.meterRegistry = meterRegistry;
     }
 
     public void sendVerificationEmail(String toEmail, String firstName, String verificationToken) {
@@ -39,7 +47,8 @@ public class EmailService {
 
             mailSender.send(message);
         } catch (Exception e) {
-            System.err.println("Failed to send verification email: " + e.getMessage());
+            log.warn("Failed to send verification email: {}", e.getMessage());
+            failed("verification");
             // Don't throw exception - allow signup to continue even if email fails
         }
     }
@@ -66,7 +75,12 @@ public class EmailService {
             message.setFrom("noreply@financeassistant.com");
             mailSender.send(message);
         } catch (Exception e) {
-            System.err.println("Failed to send reset email: " + e.getMessage());
+            log.warn("Failed to send reset email: {}", e.getMessage());
+            failed("reset");
         }
     }
+
+    private void failed(String type) {
+        Counter.builder("finbrains.mail.failures").tag("type", type).register(meterRegistry).increment();
+    }
 }
\ No newline at end of file
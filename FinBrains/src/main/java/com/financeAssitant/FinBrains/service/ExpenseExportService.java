@@ -0,0 +1,146 @@
+package com.financeAssitant.FinBrains.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.financeAssitant.FinBrains.dto.ExpenseFilterRequest;
+import com.financeAssitant.FinBrains.dto.ExpenseResponse;
+import com.financeAssitant.FinBrains.entity.Category;
+import com.financeAssitant.FinBrains.entity.Expense;
+import com.financeAssitant.FinBrains.repository.ExpenseRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Stream;
+
+// Writes a user's expenses straight from a Mongo cursor to the response, one row at a time, so memory stays
+// flat whatever the history size
+@Service
+public class ExpenseExportService {
+
+    private static final Logger log = LoggerFactory.getLogger(ExpenseExportService.class);
+    // Same column names the statement import recognizes, so an export can be imported again
+    private static final String CSV_HEADER = "date,type,amount,description,category,subcategory,payment,tags,id";
+
+    public enum Format {
+        CSV("text/csv", "csv"), NDJSON("application/x-ndjson", "ndjson");
+
+        public final String contentType;
+        public final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public static Format of(String format) {
+            if (format == null || format.isBlank()) return CSV;
+            try {
+                return valueOf(format.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unsupported export format: " + format + ". Expected csv or ndjson");
+            }
+        }
+    }
+
+    private final ExpenseRepository expenseRepository;
+    private final ExpenseService expenseService;
+    private final CategoryService categoryService;
+    private final ObjectWriter jsonWriter;
+    private final int batchSize;
+
+    public ExpenseExportService(ExpenseRepository expenseRepository, ExpenseService expenseService,
+                                CategoryService categoryService, ObjectMapper objectMapper,
+                                @Value("${app.export.batch-size:500}") int batchSize) {
+        this.expenseRepository = expenseRepository;
+        this.expenseService = expenseService;
+        this.categoryService = categoryService;
+        // The response stream belongs to the container; Jackson must not close it
+        this.jsonWriter = objectMapper.writer()
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .withRootValueSeparator("\n");
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    public long export(String userId, ExpenseFilterRequest filter, Format format, OutputStream out) throws IOException {
+        // Names for documents without a category snapshot, from the cached category list instead of per-row lookups
+        Map<String, Category> categories = new HashMap<>();
+        for (Category c : categoryService.getAll(userId)) categories.put(c.getId(), c);
+
+        long rows = 0;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 16 * 1024);
+        try (Stream<Expense> expenses = expenseRepository.streamByFilters(userId, filter, batchSize)) {
+            Iterator<Expense> it = expenses.iterator();
+            if (format == Format.CSV) {
+                writer.write(CSV_HEADER);
+                writer.write('\n');
+                while (it.hasNext()) {
+                    writeCsv(writer, expenseService.convertToResponse(it.next(), categories));
+                    rows++;
+                }
+            } else {
+                try (SequenceWriter json = jsonWriter.writeValues(writer)) {
+                    while (it.hasNext()) {
+                        json.write(expenseService.convertToResponse(it.next(), categories));
+                        rows++;
+                    }
+                }
+                if (rows > 0) writer.write('\n');
+            }
+        }
+        writer.flush();
+        log.debug("Exported {} expenses as {} for user {}", rows, format, userId);
+        return rows;
+    }
+
+    private static void writeCsv(Writer w, ExpenseResponse e) throws IOException {
+        w.write(e.getDate() != null ? DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(e.getDate()) : "");
+        w.write(',');
+        w.write(e.getType() != null ? e.getType() : "");
+        w.write(',');
+        w.write(e.getAmount() != null ? BigDecimal.valueOf(e.getAmount()).toPlainString() : "");
+        w.write(',');
+        writeField(w, e.getDescription());
+        w.write(',');
+        writeField(w, e.getCategory() != null ? e.getCategory().getName() : null);
+        w.write(',');
+        writeField(w, e.getSubcategory());
+        w.write(',');
+        writeField(w, e.getPaymentMethod() != null ? e.getPaymentMethod().getType() : null);
+        w.write(',');
+        writeField(w, e.getTags() != null ? String.join(";", e.getTags()) : null);
+        w.write(',');
+        writeField(w, e.getId());
+        w.write('\n');
+    }
+
+    // RFC 4180 quoting; a leading =, +, - or @ is prefixed with ' so spreadsheets do not evaluate it. A leading '
+    // is prefixed too, so the statement import can strip exactly one ' and get the original text back.
+    private static void writeField(Writer w, String value) throws IOException {
+        if (value == null || value.isEmpty()) return;
+        String v = "=+-@'".indexOf(value.charAt(0)) >= 0 ? "'" + value : value;
+        boolean quote = v.indexOf(',') >= 0 || v.indexOf('"') >= 0 || v.indexOf('\n') >= 0 || v.indexOf('\r') >= 0;
+        if (!quote) {
+            w.write(v);
+            return;
+        }
+        w.write('"');
+        w.write(v.replace("\"", "\"\""));
+        w.write('"');
+    }
+}
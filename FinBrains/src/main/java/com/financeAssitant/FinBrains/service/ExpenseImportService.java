@@ -0,0 +1,82 @@
+package com.financeAssitant.FinBrains.service;
+
+import com.financeAssitant.FinBrains.entity.ImportJob;
+import com.financeAssitant.FinBrains.repository.ImportJobRepository;
+import com.financeAssitant.FinBrains.utility.StatementReader;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+
+// Statement uploads: the file is spooled to disk, a job is recorded and StatementImporter does the rest in the background
+@Service
+@RequiredArgsConstructor
+public class ExpenseImportService {
+
+    private final ImportJobRepository importJobRepository;
+    private final StatementImporter statementImporter;
+
+    public ImportJob start(String userId, MultipartFile file, String format, String dateFormat) {
+        if (file == null || file.isEmpty()) {
+            throw new IllegalArgumentException("Statement file is required");
+        }
+        StatementReader.Format resolved = StatementReader.formatOf(format, file.getOriginalFilename());
+
+        // The upload is gone once the request ends, so the importer reads its own copy
+        Path copy;
+        try {
+            copy = Files.createTempFile("finbrains-import-", ".tmp");
+            file.transferTo(copy);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not store the uploaded statement", e);
+        }
+
+        try {
+            validate(copy, resolved, dateFormat);
+        } catch (IllegalArgumentException e) {
+            copy.toFile().delete();
+            throw e;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        ImportJob job;
+        try {
+            job = importJobRepository.save(ImportJob.builder()
+                    .userId(userId)
+                    .fileName(file.getOriginalFilename())
+                    .format(resolved.name())
+                    .status(ImportJob.Status.RUNNING)
+                    .startedAt(now)
+                    .updatedAt(now)
+                    .build());
+        } catch (RuntimeException e) {
+            copy.toFile().delete();
+            throw e;
+        }
+        statementImporter.run(job, copy, resolved, dateFormat);
+        return job;
+    }
+
+    // Problems with the file as a whole are reported on the upload (400) rather than as a failed job: the CSV
+    // header and the dateFormat pattern are checked here, and an explicit dateFormat must parse the first row
+    private void validate(Path copy, StatementReader.Format format, String dateFormat) {
+        try (Reader reader = Files.newBufferedReader(copy, StandardCharsets.UTF_8);
+             StatementReader statement = StatementReader.open(reader, format, dateFormat)) {
+            if (dateFormat != null && !dateFormat.isBlank()) statement.next();
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Could not read the statement: " + e.getMessage());
+        }
+    }
+
+    public ImportJob status(String userId, String importId) {
+        return importJobRepository.findByIdAndUserId(importId, userId)
+                .orElseThrow(() -> new RuntimeException("Import not found or access denied!"));
+    }
+}
@@ -1,14 +1,24 @@
 package com.financeAssitant.FinBrains.service;
 
 import com.financeAssitant.FinBrains.dto.CreateExpenseRequest;
+import com.financeAssitant.FinBrains.dto.ExpenseBatchResponse;
+import com.financeAssitant.FinBrains.dto.ExpenseBatchUpdate;
+import com.financeAssitant.FinBrains.dto.ExpenseCursorPage;
 import com.financeAssitant.FinBrains.dto.ExpenseFilterRequest;
 import com.financeAssitant.FinBrains.dto.ExpenseResponse;
+import com.financeAssitant.FinBrains.dto.UpcomingOccurrenceResponse;
 import com.financeAssitant.FinBrains.dto.UpdateExpenseRequest;
 import com.financeAssitant.FinBrains.entity.Expense;
 import com.financeAssitant.FinBrains.repository.ExpenseRepository;
-import com.financeAssitant.FinBrains.repository.CategoryRepository;
+import com.financeAssitant.FinBrains.repository.UserRepository;
 import com.financeAssitant.FinBrains.entity.Category;
+import com.financeAssitant.FinBrains.utility.ExpenseCursor;
+import com.financeAssitant.FinBrains.utility.RecurrenceSchedule;
+import io.micrometer.core.annotation.Timed;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -16,10 +26,21 @@ import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
+// Every public method is timed as finbrains.service{class, method}
+@Timed("finbrains.service")
 @Service
 public class ExpenseService {
 
@@ -27,54 +48,68 @@ public class ExpenseService {
     private ExpenseRepository expenseRepository;
 
     @Autowired
-    private CategoryRepository categoryRepository;
+    private MonthlyRollupService monthlyRollupService;
+
+    @Autowired
+    private BalanceService balanceService;
+
+    @Autowired
+    private CategoryBatchResolver categoryBatchResolver;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private TotalsJournal totalsJournal;
+
+    @Value("${app.expenses.batch.max-size:500}")
+    private int maxBatchSize;
 
     private String normalizeFrequency(String freq) {
-        if (freq == null) return null;
-        String f = freq.trim().toUpperCase();
-        return switch (f) {
-            case "DAILY", "DAY" -> "DAILY";
-            case "WEEKLY", "WEEK" -> "WEEKLY";
-            case "MONTHLY", "MONTH" -> "MONTHLY";
-            case "QUARTERLY", "QUARTER" -> "QUARTERLY";
-            case "YEARLY", "YEAR" -> "YEARLY";
-            case "CUSTOM" -> "CUSTOM";
-            default -> f;
-        };
+        return RecurrenceSchedule.normalizeFrequency(freq);
     }
 
-    private LocalDateTime addPeriod(LocalDateTime from, String freq) {
-        LocalDateTime base = from != null ? from : LocalDateTime.now();
-        String f = normalizeFrequency(freq);
-        if ("DAILY".equalsIgnoreCase(f)) return base.plusDays(1);
-        if ("WEEKLY".equalsIgnoreCase(f)) return base.plusWeeks(1);
-        if ("MONTHLY".equalsIgnoreCase(f)) return base.plusMonths(1);
-        if ("QUARTERLY".equalsIgnoreCase(f)) return base.plusMonths(3);
-        if ("YEARLY".equalsIgnoreCase(f)) return base.plusYears(1);
-        return base.plusMonths(1);
+    // Sets nextDue to the first occurrence from today (in the owner's zone); past endDate disables the schedule
+    private void scheduleNext(String zone, Expense.Recurring r, LocalDateTime fallbackStart) {
+        r.setTimezone(zone);
+        RecurrenceSchedule schedule = RecurrenceSchedule.of(r, fallbackStart);
+        LocalDateTime next = schedule.nextOnOrAfter(schedule.startOfToday());
+        if (next == null) r.setIsRecurring(false);
+        r.setNextDue(next);
     }
 
-    private LocalDateTime computeNextOnOrAfter(LocalDateTime start, String freq, LocalDateTime minInclusive) {
-        LocalDateTime candidate = (start != null ? start : LocalDateTime.now());
-        LocalDateTime min = (minInclusive != null ? minInclusive : LocalDateTime.now());
-        while (candidate.isBefore(min)) {
-            candidate = addPeriod(candidate, freq);
-        }
-        return candidate;
+    private String userZone(String userId) {
+        return userRepository.findById(userId)
+                .map(u -> u.getProfile() != null ? u.getProfile().getTimezone() : null)
+                .orElse(null);
     }
 
     public ExpenseResponse createExpense(String userId, CreateExpenseRequest request) {
+        Expense expense = newExpense(new WriteContext(userId), request);
+
+        // Save expense
+        Expense saved = totalsJournal.write(List.of(expense), () -> {
+            Expense s = expenseRepository.save(expense);
+            monthlyRollupService.record(s, 1);
+            balanceService.apply(s, 1);
+            return s;
+        });
+        return convertToResponse(saved);
+    }
+
+    // Validated, unsaved expense for a create request
+    private Expense newExpense(WriteContext ctx, CreateExpenseRequest request) {
+        String userId = ctx.userId;
         // Resolve single categoryId to Category (DBRef)
         Category categoryEntity = null;
         if (request.getCategoryId() != null && !request.getCategoryId().isBlank()) {
-            Category category = categoryRepository.findById(request.getCategoryId())
-                    .orElseThrow(() -> new IllegalArgumentException("Invalid category ID"));
-            boolean isGlobal = category.getUserId() == null || category.isPredefined();
-            boolean isOwnedByUser = userId.equals(category.getUserId());
-            if (!isGlobal && !isOwnedByUser) {
-                throw new IllegalArgumentException("Category does not belong to the current user");
-            }
-            categoryEntity = category;
+            categoryEntity = ctx.category(request.getCategoryId());
         }
 
         // Normalize type (default EXPENSE). Amount must always be positive.
@@ -86,8 +121,7 @@ public class ExpenseService {
 
         // If INCOME, ensure category is 'Monthly Income' (auto-assign if not provided or mismatched)
         if (type == Expense.ExpenseType.INCOME) {
-            Category monthlyIncomeCat = categoryRepository.findByUserIdAndNameIgnoreCase(userId, "Monthly Income")
-                    .orElseThrow(() -> new IllegalArgumentException("Mandatory category 'Monthly Income' not found"));
+            Category monthlyIncomeCat = ctx.monthlyIncome();
             if (categoryEntity == null || categoryEntity.getName() == null || !"Monthly Income".equalsIgnoreCase(categoryEntity.getName())) {
                 categoryEntity = monthlyIncomeCat;
             }
@@ -116,6 +150,9 @@ public class ExpenseService {
                 .recurring(Expense.Recurring.builder()
                         .isRecurring(request.getIsRecurring() != null ? request.getIsRecurring() : false)
                         .frequency(normalizeFrequency(request.getRecurringFrequency()))
+                        .interval(request.getRecurringInterval())
+                        .weekOfMonth(request.getRecurringWeekOfMonth())
+                        .dayOfWeek(request.getRecurringDayOfWeek())
                         .startDate(request.getStartDate())
                         .endDate(request.getEndDate())
                         .build())
@@ -139,28 +176,11 @@ public class ExpenseService {
                 if (freq == null || freq.isBlank()) {
                     throw new IllegalArgumentException("Recurring interval is required when recurring=true");
                 }
-                // Determine initial candidate from startDate (as first occurrence) or from expense.date
-                LocalDateTime startAt = (expense.getRecurring().getStartDate() != null)
-                        ? expense.getRecurring().getStartDate().atStartOfDay()
-                        : (expense.getDate() != null ? expense.getDate() : LocalDateTime.now());
-                LocalDateTime todayStart = LocalDateTime.now().withHour(0).withMinute(0).withSecond(0).withNano(0);
-                LocalDateTime next = computeNextOnOrAfter(startAt, freq, todayStart);
-                // If endDate is set and next is after endDate (inclusive end), stop scheduling
-                if (expense.getRecurring().getEndDate() != null) {
-                    LocalDateTime endAt = expense.getRecurring().getEndDate().atStartOfDay();
-                    if (next.isAfter(endAt)) {
-                        // effectively disable further runs
-                        expense.getRecurring().setIsRecurring(false);
-                        next = null;
-                    }
-                }
-                expense.getRecurring().setNextDue(next);
+                // First occurrence is startDate, or expense.date when no startDate is given
+                scheduleNext(ctx.zone(), expense.getRecurring(), expense.getDate());
             }
         }
-
-        // Save expense
-        Expense saved = expenseRepository.save(expense);
-        return convertToResponse(saved);
+        return expense;
     }
 
     public ExpenseResponse updateExpense(String userId, String expenseId, UpdateExpenseRequest request) {
@@ -171,6 +191,26 @@ public class ExpenseService {
         }
 
         Expense expense = expenseOptional.get();
+        Expense before = totalsSnapshot(expense);
+        Integer expectedVersion = expense.getMetadata() != null ? expense.getMetadata().getVersion() : null;
+        applyUpdate(new WriteContext(userId), expense, request, LocalDateTime.now());
+
+        // Optimistic write: totals are adjusted by (before -> after) deltas, so a concurrent edit must not slip in between
+        boolean replaced = totalsJournal.write(List.of(before, expense), () -> {
+            if (!expenseRepository.replaceIfVersion(expense, expectedVersion)) return false;
+            monthlyRollupService.replace(before, expense);
+            balanceService.replace(before, expense);
+            return true;
+        });
+        if (!replaced) {
+            throw new RuntimeException("Expense was modified concurrently, please retry");
+        }
+        return convertToResponse(expense);
+    }
+
+    // Applies the fields set on the request and bumps metadata.version; nothing is written
+    private void applyUpdate(WriteContext ctx, Expense expense, UpdateExpenseRequest request, LocalDateTime now) {
+        Integer expectedVersion = expense.getMetadata() != null ? expense.getMetadata().getVersion() : null;
 
         // Update fields only if provided
         if (request.getAmount() != null) {
@@ -188,9 +228,7 @@ public class ExpenseService {
                 else if ("INCOME".equals(up)) {
                     expense.setType(Expense.ExpenseType.INCOME);
                     // Force category to 'Monthly Income' when type is INCOME
-                    Category monthlyIncomeCat = categoryRepository.findByUserIdAndNameIgnoreCase(userId, "Monthly Income")
-                            .orElseThrow(() -> new IllegalArgumentException("Mandatory category 'Monthly Income' not found"));
-                    expense.setCategory(monthlyIncomeCat);
+                    expense.setCategory(ctx.monthlyIncome());
                 }
                 else throw new IllegalArgumentException("Invalid type. Must be EXPENSE or INCOME");
             }
@@ -204,18 +242,10 @@ public class ExpenseService {
             if (request.getCategoryId().isBlank()) {
                 expense.setCategory(null);
             } else {
-                Category category = categoryRepository.findById(request.getCategoryId())
-                        .orElseThrow(() -> new IllegalArgumentException("Invalid category ID"));
-                boolean isGlobal = category.getUserId() == null || category.isPredefined();
-                boolean isOwnedByUser = userId.equals(category.getUserId());
-                if (!isGlobal && !isOwnedByUser) {
-                    throw new IllegalArgumentException("Category does not belong to the current user");
-                }
+                Category category = ctx.category(request.getCategoryId());
                 // If current type is INCOME, force 'Monthly Income' category regardless of provided id
                 if (expense.getType() == Expense.ExpenseType.INCOME) {
-                    Category monthlyIncomeCat = categoryRepository.findByUserIdAndNameIgnoreCase(userId, "Monthly Income")
-                            .orElseThrow(() -> new IllegalArgumentException("Mandatory category 'Monthly Income' not found"));
-                    expense.setCategory(monthlyIncomeCat);
+                    expense.setCategory(ctx.monthlyIncome());
                 } else {
                     if (category.getName() != null && "Monthly Income".equalsIgnoreCase(category.getName())) {
                         throw new IllegalArgumentException("'Monthly Income' category can only be used with INCOME type");
@@ -241,10 +271,14 @@ public class ExpenseService {
         }
 
         // Update recurring config
-        if (request.getIsRecurring() != null || request.getRecurringFrequency() != null || request.getStartDate() != null || request.getEndDate() != null) {
+        if (request.getIsRecurring() != null || request.getRecurringFrequency() != null || request.getStartDate() != null || request.getEndDate() != null
+                || request.getRecurringInterval() != null || request.getRecurringWeekOfMonth() != null || request.getRecurringDayOfWeek() != null) {
             Expense.Recurring r = expense.getRecurring() != null ? expense.getRecurring() : new Expense.Recurring();
             if (request.getIsRecurring() != null) r.setIsRecurring(request.getIsRecurring());
             if (request.getRecurringFrequency() != null) r.setFrequency(normalizeFrequency(request.getRecurringFrequency()));
+            if (request.getRecurringInterval() != null) r.setInterval(request.getRecurringInterval());
+            if (request.getRecurringWeekOfMonth() != null) r.setWeekOfMonth(request.getRecurringWeekOfMonth());
+            if (request.getRecurringDayOfWeek() != null) r.setDayOfWeek(request.getRecurringDayOfWeek());
             if (request.getStartDate() != null) r.setStartDate(request.getStartDate());
             if (request.getEndDate() != null) r.setEndDate(request.getEndDate());
 
@@ -258,19 +292,7 @@ public class ExpenseService {
                     throw new IllegalArgumentException("Recurring interval is required when recurring=true");
                 }
                 // Recompute nextDue if startDate/frequency/isRecurring changed or if nextDue is null
-                LocalDateTime startAt = (r.getStartDate() != null)
-                        ? r.getStartDate().atStartOfDay()
-                        : (expense.getDate() != null ? expense.getDate() : LocalDateTime.now());
-                LocalDateTime todayStart = LocalDateTime.now().withHour(0).withMinute(0).withSecond(0).withNano(0);
-                LocalDateTime next = computeNextOnOrAfter(startAt, r.getFrequency(), todayStart);
-                if (r.getEndDate() != null) {
-                    LocalDateTime endAt = r.getEndDate().atStartOfDay();
-                    if (next.isAfter(endAt)) {
-                        r.setIsRecurring(false);
-                        next = null;
-                    }
-                }
-                r.setNextDue(next);
+                scheduleNext(ctx.zone(), r, expense.getDate());
             } else {
                 // Turning recurring off clears nextDue
                 r.setNextDue(null);
@@ -279,11 +301,9 @@ public class ExpenseService {
         }
 
         // Update metadata
-        expense.getMetadata().setUpdatedAt(LocalDateTime.now());
-        expense.getMetadata().setVersion(expense.getMetadata().getVersion() + 1);
-
-        Expense savedExpense = expenseRepository.save(expense);
-        return convertToResponse(savedExpense);
+        if (expense.getMetadata() == null) expense.setMetadata(new Expense.Metadata());
+        expense.getMetadata().setUpdatedAt(now);
+        expense.getMetadata().setVersion((expectedVersion != null ? expectedVersion : 0) + 1);
     }
 
     public ExpenseResponse getExpenseById(String userId, String expenseId) {
@@ -298,64 +318,327 @@ public class ExpenseService {
 
     public List<ExpenseResponse> getUserExpenses(String userId) {
         List<Expense> expenses = expenseRepository.findByUserIdOrderByDateDesc(userId);
-        return expenses.stream()
-                .map(this::convertToResponse)
-                .collect(Collectors.toList());
+        return convertAll(expenses);
     }
 
     public void deleteExpense(String userId, String expenseId) {
-        Optional<Expense> expenseOptional = expenseRepository.findByIdAndUserId(expenseId, userId);
-
-        if (expenseOptional.isEmpty()) {
+        // Deleted and returned in one command, so totals see exactly the document that was removed. Its month is
+        // only known afterwards, so the write counts as touching every month of the user.
+        Expense deleted = totalsJournal.writeAll(userId, () -> {
+            Expense d = expenseRepository.deleteAndReturn(expenseId, userId).orElse(null);
+            if (d != null) {
+                monthlyRollupService.record(d, -1);
+                balanceService.apply(d, -1);
+            }
+            return d;
+        });
+        if (deleted == null) {
             throw new RuntimeException("Expense not found or access denied!");
         }
+    }
+
+    // Batch create: every item is validated against one category preload, the valid ones are written with a
+    // single unordered bulk insert and totals are updated once. Results are per item, in request order.
+    public ExpenseBatchResponse createExpenses(String userId, List<CreateExpenseRequest> requests) {
+        checkBatchSize(requests);
+        WriteContext ctx = new WriteContext(userId);
+        ctx.preload(requests.stream().filter(Objects::nonNull).map(CreateExpenseRequest::getCategoryId).toList());
+
+        ExpenseBatchResponse.Item[] results = new ExpenseBatchResponse.Item[requests.size()];
+        List<Expense> pending = new ArrayList<>();
+        List<Integer> positions = new ArrayList<>();
+        for (int i = 0; i < requests.size(); i++) {
+            try {
+                pending.add(newExpense(ctx, validated(requests.get(i))));
+                positions.add(i);
+            } catch (RuntimeException e) {
+                results[i] = ExpenseBatchResponse.Item.failed(i, null, e.getMessage());
+            }
+        }
+
+        Map<Integer, String> failed = totalsJournal.write(pending, () -> {
+            Map<Integer, String> f = expenseRepository.insertAll(pending);
+            List<Expense> inserted = new ArrayList<>();
+            for (int j = 0; j < pending.size(); j++) {
+                if (!f.containsKey(j)) inserted.add(pending.get(j));
+            }
+            monthlyRollupService.recordAll(inserted);
+            balanceService.applyAll(inserted);
+            return f;
+        });
+        for (int j = 0; j < pending.size(); j++) {
+            int i = positions.get(j);
+            results[i] = failed.containsKey(j)
+                    ? ExpenseBatchResponse.Item.failed(i, null, failed.get(j))
+                    : ExpenseBatchResponse.Item.succeeded(i, convertToResponse(pending.get(j), ctx.categories));
+        }
+        return ExpenseBatchResponse.of(results);
+    }
+
+    // Batch update: one read for all targets, one unordered bulk of version-checked replaces, one totals update
+    public ExpenseBatchResponse updateExpenses(String userId, List<ExpenseBatchUpdate> requests) {
+        checkBatchSize(requests);
+        Set<String> ids = new HashSet<>();
+        for (ExpenseBatchUpdate r : requests) if (r != null && r.getId() != null) ids.add(r.getId());
+        Map<String, Expense> existing = new HashMap<>();
+        expenseRepository.findByUserIdAndIdIn(userId, ids).forEach(e -> existing.put(e.getId(), e));
+        WriteContext ctx = new WriteContext(userId);
+        ctx.preload(requests.stream().filter(Objects::nonNull).map(UpdateExpenseRequest::getCategoryId).toList());
+
+        ExpenseBatchResponse.Item[] results = new ExpenseBatchResponse.Item[requests.size()];
+        List<Expense> pending = new ArrayList<>();
+        List<Expense> befores = new ArrayList<>();
+        List<Integer> expectedVersions = new ArrayList<>();
+        List<Integer> positions = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        // Mongo stores milliseconds; the value written must compare equal when read back
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+        for (int i = 0; i < requests.size(); i++) {
+            ExpenseBatchUpdate request = requests.get(i);
+            String id = request != null ? request.getId() : null;
+            try {
+                if (id == null || id.isBlank()) throw new IllegalArgumentException("Expense id is required");
+                if (!seen.add(id)) throw new IllegalArgumentException("Expense appears more than once in the batch");
+                Expense expense = existing.get(id);
+                if (expense == null) throw new RuntimeException("Expense not found or access denied!");
+                validated(request);
+                Expense before = totalsSnapshot(expense);
+                Integer expectedVersion = expense.getMetadata() != null ? expense.getMetadata().getVersion() : null;
+                applyUpdate(ctx, expense, request, now);
+                pending.add(expense);
+                befores.add(before);
+                expectedVersions.add(expectedVersion);
+                positions.add(i);
+            } catch (RuntimeException e) {
+                results[i] = ExpenseBatchResponse.Item.failed(i, id, e.getMessage());
+            }
+        }
+
+        List<Expense> touched = new ArrayList<>(befores);
+        touched.addAll(pending);
+        boolean[] applied = totalsJournal.write(touched, () -> {
+            boolean[] a = expenseRepository.replaceAllIfVersion(pending, expectedVersions);
+            List<Expense> removed = new ArrayList<>();
+            List<Expense> added = new ArrayList<>();
+            for (int j = 0; j < pending.size(); j++) {
+                if (a[j]) {
+                    removed.add(befores.get(j));
+                    added.add(pending.get(j));
+                }
+            }
+            monthlyRollupService.recordAll(removed, added);
+            balanceService.applyAll(removed, added);
+            return a;
+        });
+        for (int j = 0; j < pending.size(); j++) {
+            int i = positions.get(j);
+            Expense e = pending.get(j);
+            results[i] = applied[j]
+                    ? ExpenseBatchResponse.Item.succeeded(i, convertToResponse(e, ctx.categories))
+                    : ExpenseBatchResponse.Item.failed(i, e.getId(), "Expense was modified concurrently, please retry");
+        }
+        return ExpenseBatchResponse.of(results);
+    }
+
+    // Batch delete: one read (for the totals) and one delete for every expense of the user in the list
+    public ExpenseBatchResponse deleteExpenses(String userId, List<String> expenseIds) {
+        checkBatchSize(expenseIds);
+        Set<String> ids = new HashSet<>();
+        for (String id : expenseIds) if (id != null) ids.add(id);
+        Map<String, Expense> existing = new HashMap<>();
+        expenseRepository.findByUserIdAndIdIn(userId, ids).forEach(e -> existing.put(e.getId(), e));
+
+        long deleted = existing.isEmpty() ? 0 : totalsJournal.write(existing.values(), () -> {
+            long n = expenseRepository.deleteByUserIdAndIdIn(userId, existing.keySet());
+            if (n == existing.size()) {
+                monthlyRollupService.recordAll(existing.values(), List.of());
+                balanceService.applyAll(existing.values(), List.of());
+            }
+            return n;
+        });
+        if (deleted != existing.size()) {
+            // Some were deleted concurrently between the read and the delete, so the deltas are unknown: recompute,
+            // or leave it to the repair sweep if other writes of the user are still in flight
+            boolean rebuilt = monthlyRollupService.rebuild(userId);
+            boolean reconciled = balanceService.reconcile(userId).getRevision() != null;
+            if (!rebuilt || !reconciled) totalsJournal.repairLater(userId);
+        }
+
+        ExpenseBatchResponse.Item[] results = new ExpenseBatchResponse.Item[expenseIds.size()];
+        Set<String> seen = new HashSet<>();
+        for (int i = 0; i < expenseIds.size(); i++) {
+            String id = expenseIds.get(i);
+            results[i] = existing.containsKey(id) && seen.add(id)
+                    ? ExpenseBatchResponse.Item.succeeded(i, id)
+                    : ExpenseBatchResponse.Item.failed(i, id, "Expense not found or access denied!");
+        }
+        return ExpenseBatchResponse.of(results);
+    }
+
+    private void checkBatchSize(List<?> items) {
+        if (items == null || items.isEmpty()) throw new IllegalArgumentException("Batch is empty");
+        if (items.size() > maxBatchSize) {
+            throw new IllegalArgumentException("Batch has " + items.size() + " items, the limit is " + maxBatchSize);
+        }
+    }
+
+    // Bean validation per item, so one bad item fails alone instead of rejecting the whole batch
+    private <T> T validated(T request) {
+        if (request == null) throw new IllegalArgumentException("Item is empty");
+        Set<ConstraintViolation<T>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            throw new IllegalArgumentException(violations.stream()
+                    .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining("; ")));
+        }
+        return request;
+    }
+
+    // Lookups shared by the expenses of one write: each category id is resolved once, the owner's zone once
+    private final class WriteContext {
+        private final String userId;
+        private final Map<String, Category> categories = new HashMap<>();
+        private Category monthlyIncome;
+        private String zone;
+        private boolean zoneLoaded;
+
+        private WriteContext(String userId) {
+            this.userId = userId;
+        }
+
+        // Batch writes resolve all referenced category ids up front
+        private void preload(Collection<String> ids) {
+            Set<String> wanted = new HashSet<>();
+            for (String id : ids) if (id != null && !id.isBlank()) wanted.add(id);
+            if (!wanted.isEmpty()) categories.putAll(categoryService.findAllById(userId, wanted));
+        }
+
+        private Category category(String id) {
+            Category category = categories.get(id);
+            if (category == null) {
+                category = categoryService.findById(userId, id)
+                        .orElseThrow(() -> new IllegalArgumentException("Invalid category ID"));
+                categories.put(id, category);
+            }
+            boolean isGlobal = category.getUserId() == null || category.isPredefined();
+            boolean isOwnedByUser = userId.equals(category.getUserId());
+            if (!isGlobal && !isOwnedByUser) {
+                throw new IllegalArgumentException("Category does not belong to the current user");
+            }
+            return category;
+        }
+
+        private Category monthlyIncome() {
+            if (monthlyIncome == null) {
+                monthlyIncome = categoryService.findByName(userId, "Monthly Income")
+                        .orElseThrow(() -> new IllegalArgumentException("Mandatory category 'Monthly Income' not found"));
+                categories.put(monthlyIncome.getId(), monthlyIncome);
+            }
+            return monthlyIncome;
+        }
+
+        private String zone() {
+            if (!zoneLoaded) {
+                zone = userZone(userId);
+                zoneLoaded = true;
+            }
+            return zone;
+        }
+    }
 
-        expenseRepository.deleteByIdAndUserId(expenseId, userId);
+    // Copy of the fields that feed monthly totals, taken before an expense is mutated
+    private Expense totalsSnapshot(Expense e) {
+        return Expense.builder()
+                .userId(e.getUserId())
+                .amount(e.getAmount())
+                .type(e.getType())
+                .date(e.getDate())
+                .category(e.getCategory())
+                .categoryRef(e.getCategoryRef())
+                .build();
     }
 
     public List<ExpenseResponse> getExpensesByCategory(String userId, String categoryId) {
         List<Expense> expenses = expenseRepository.findByUserIdAndCategory_IdOrderByDateDesc(userId, categoryId);
-        return expenses.stream()
-                .map(this::convertToResponse)
-                .collect(Collectors.toList());
+        return convertAll(expenses);
     }
 
     public Page<ExpenseResponse> getUserExpensesPaginated(String userId, int page, int size) {
         Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "date"));
         Page<Expense> expensePage = expenseRepository.findByUserIdOrderByDateDesc(userId, pageable);
 
-        return expensePage.map(this::convertToResponse);
+        Map<String, Category> categories = categoryBatchResolver.resolve(expensePage.getContent());
+        return expensePage.map(e -> convertToResponse(e, categories));
+    }
+
+    // Keyset paging: cost per page is independent of how deep the client has scrolled
+    public ExpenseCursorPage getExpensesByCursor(String userId, ExpenseFilterRequest filterRequest, String cursor,
+                                                 int size, boolean includeTotal) {
+        if (filterRequest != null) {
+            boolean dateDesc = (filterRequest.getSortBy() == null || "date".equals(filterRequest.getSortBy()))
+                    && (filterRequest.getSortDirection() == null || "desc".equalsIgnoreCase(filterRequest.getSortDirection()));
+            if (!dateDesc) {
+                throw new IllegalArgumentException("Cursor paging only supports sortBy=date, sortDirection=desc");
+            }
+        }
+        int limit = Math.max(1, Math.min(size, 100));
+        ExpenseCursor after = ExpenseCursor.decode(cursor);
+        List<Expense> rows = expenseRepository.findPageAfter(userId, filterRequest,
+                after != null ? after.date() : null, after != null ? after.id() : null, limit + 1);
+
+        boolean hasMore = rows.size() > limit;
+        if (hasMore) rows = rows.subList(0, limit);
+        Expense last = rows.isEmpty() ? null : rows.get(rows.size() - 1);
+        String nextCursor = hasMore ? new ExpenseCursor(last.getDate(), last.getId()).encode() : null;
+
+        return ExpenseCursorPage.builder()
+                .content(convertAll(rows))
+                .nextCursor(nextCursor)
+                .hasMore(nextCursor != null)
+                .totalElements(includeTotal ? expenseRepository.countByFilters(userId, filterRequest) : null)
+                .build();
     }
 
     public Page<ExpenseResponse> getFilteredExpenses(String userId, ExpenseFilterRequest filterRequest) {
+        // Query-string binding leaves unset fields null, so fall back to the request defaults
         Sort sort = Sort.by(
-                "desc".equalsIgnoreCase(filterRequest.getSortDirection()) ?
+                filterRequest.getSortDirection() == null || "desc".equalsIgnoreCase(filterRequest.getSortDirection()) ?
                         Sort.Direction.DESC : Sort.Direction.ASC,
-                filterRequest.getSortBy()
+                filterRequest.getSortBy() != null ? filterRequest.getSortBy() : "date"
         );
 
         Pageable pageable = PageRequest.of(
-                filterRequest.getPage(),
-                filterRequest.getSize(),
+                filterRequest.getPage() != null ? filterRequest.getPage() : 0,
+                filterRequest.getSize() != null ? filterRequest.getSize() : 20,
                 sort
         );
 
-        Page<Expense> expensePage = expenseRepository.findByUserIdWithFilters(
-                userId,
-                filterRequest.getStartDate(),
-                filterRequest.getEndDate(),
-                filterRequest.getCategoryId(),
-                filterRequest.getMinAmount(),
-                filterRequest.getMaxAmount(),
-                filterRequest.getSearchTerm(),
-                pageable
-        );
+        Page<Expense> expensePage = expenseRepository.findByFilters(userId, filterRequest, pageable);
 
-        return expensePage.map(this::convertToResponse);
+        Map<String, Category> categories = categoryBatchResolver.resolve(expensePage.getContent());
+        return expensePage.map(e -> convertToResponse(e, categories));
     }
 
 
+    // Map a list with at most one category lookup, for rows that have no embedded snapshot
+    private List<ExpenseResponse> convertAll(List<Expense> expenses) {
+        Map<String, Category> categories = categoryBatchResolver.resolve(expenses);
+        return expenses.stream()
+                .map(e -> convertToResponse(e, categories))
+                .collect(Collectors.toList());
+    }
+
     private ExpenseResponse convertToResponse(Expense expense) {
+        return convertToResponse(expense, categoryBatchResolver.resolve(List.of(expense)));
+    }
+
+    // Package-private so the mapping can be benchmarked in isolation
+    ExpenseResponse convertToResponse(Expense expense, Map<String, Category> categories) {
+        String categoryId = expense.categoryId();
+        String categoryName = expense.getCategoryRef() != null && expense.getCategoryRef().getName() != null
+                ? expense.getCategoryRef().getName()
+                : (categoryId != null && categories.containsKey(categoryId) ? categories.get(categoryId).getName() : null);
         return ExpenseResponse.builder()
                 .id(expense.getId())
                 .amount(expense.getAmount())
@@ -366,15 +649,18 @@ public class ExpenseService {
                 .tags(expense.getTags())
                 .isRecurring(expense.getRecurring() != null ? expense.getRecurring().getIsRecurring() : false)
                 .recurringFrequency(expense.getRecurring() != null ? expense.getRecurring().getFrequency() : null)
+                .recurringInterval(expense.getRecurring() != null ? expense.getRecurring().getInterval() : null)
+                .recurringWeekOfMonth(expense.getRecurring() != null ? expense.getRecurring().getWeekOfMonth() : null)
+                .recurringDayOfWeek(expense.getRecurring() != null ? expense.getRecurring().getDayOfWeek() : null)
                 .nextRunDate(expense.getRecurring() != null ? expense.getRecurring().getNextDue() : null)
                 .startDate(expense.getRecurring() != null ? expense.getRecurring().getStartDate() : null)
                 .endDate(expense.getRecurring() != null ? expense.getRecurring().getEndDate() : null)
                 .createdAt(expense.getMetadata() != null ? expense.getMetadata().getCreatedAt() : null)
                 .updatedAt(expense.getMetadata() != null ? expense.getMetadata().getUpdatedAt() : null)
-                .category(expense.getCategory() != null ?
+                .category(categoryId != null ?
                         ExpenseResponse.CategoryResponse.builder()
-                                .id(expense.getCategory().getId())
-                                .name(expense.getCategory().getName())
+                                .id(categoryId)
+                                .name(categoryName)
                                 .build() : null)
                 .paymentMethod(expense.getPaymentMethod() != null ?
                         ExpenseResponse.PaymentMethodResponse.builder()
@@ -386,57 +672,60 @@ public class ExpenseService {
     }
 
     public double getMonthlyIncome(String userId, java.time.YearMonth ym) {
-        java.time.LocalDateTime startDt = ym.atDay(1).atStartOfDay();
-        java.time.LocalDateTime endDt = ym.atEndOfMonth().atTime(23, 59, 59);
-        List<Expense> list = expenseRepository.findByUserIdAndCurrentMonth(userId, startDt, endDt);
-        double sum = 0.0;
-        for (var e : list) {
-            if (e.getCategory() != null && e.getCategory().getName() != null) {
-                String nm = e.getCategory().getName();
-                String norm = nm.toLowerCase().replaceAll("[^a-z]", ""); // strip spaces/punct
-                if (norm.contains("monthlyincome")) {
-                    sum += (e.getAmount() != null ? e.getAmount() : 0.0);
-                }
-            }
-        }
-        return sum;
+        return monthlyRollupService.get(userId, ym).getIncome();
     }
 
     public double getMonthlySpent(String userId, java.time.YearMonth ym) {
-        java.time.LocalDateTime startDt = ym.atDay(1).atStartOfDay();
-        java.time.LocalDateTime endDt = ym.atEndOfMonth().atTime(23, 59, 59);
-        List<Expense> list = expenseRepository.findByUserIdAndCurrentMonth(userId, startDt, endDt);
-        double sum = 0.0;
-        for (var e : list) {
-            if (e.getAmount() == null) continue;
-            String nm = e.getCategory() != null && e.getCategory().getName() != null ? e.getCategory().getName() : "";
-            String norm = nm.toLowerCase().replaceAll("[^a-z]", "");
-            if (!norm.contains("monthlyincome")) {
-                sum += e.getAmount();
-            }
-        }
-        return sum;
+        return monthlyRollupService.get(userId, ym).getSpent();
     }
 
     public double getBalance(String userId) {
-        List<Expense> list = expenseRepository.findByUserIdOrderByDateDesc(userId);
-        double income = 0.0, expense = 0.0;
-        for (var e : list) {
-            double amt = e.getAmount() != null ? e.getAmount() : 0.0;
-            Expense.ExpenseType t = e.getType() != null ? e.getType() : Expense.ExpenseType.EXPENSE;
-            if (t == Expense.ExpenseType.INCOME) income += amt; else expense += amt;
-        }
-        return income - expense;
+        return balanceService.getBalance(userId);
+    }
+
+    public double reconcileBalance(String userId) {
+        return balanceService.reconcile(userId).getBalance();
     }
 
     public List<ExpenseResponse> getRecurringExpenses(String userId) {
-        return expenseRepository.findByUserIdAndRecurring_IsRecurringTrue(userId)
-                .stream().map(this::convertToResponse).collect(Collectors.toList());
+        return convertAll(expenseRepository.findByUserIdAndRecurring_IsRecurringTrue(userId));
+    }
+
+    // Projected occurrences of the user's active recurring expenses over the next days (max 366), soonest first
+    public List<UpcomingOccurrenceResponse> getUpcomingOccurrences(String userId, int days, int limit) {
+        int max = Math.max(1, Math.min(limit, 500));
+        LocalDateTime until = LocalDateTime.now().plusDays(Math.max(1, Math.min(days, 366)));
+        List<Expense> templates = expenseRepository.findByUserIdAndRecurring_IsRecurringTrue(userId);
+        Map<String, Category> categories = categoryBatchResolver.resolve(templates);
+
+        List<UpcomingOccurrenceResponse> out = new ArrayList<>();
+        for (Expense t : templates) {
+            Expense.Recurring r = t.getRecurring();
+            if (r == null || r.getNextDue() == null) continue;
+            RecurrenceSchedule schedule = RecurrenceSchedule.of(r, r.getNextDue());
+            ExpenseResponse.CategoryResponse category = convertToResponse(t, categories).getCategory();
+            // Starts at nextDue, so occurrences the scheduler has not created yet are included
+            LocalDateTime due = r.getNextDue();
+            for (int n = 0; due != null && !due.isAfter(until) && n < max; n++) {
+                out.add(UpcomingOccurrenceResponse.builder()
+                        .templateId(t.getId())
+                        .description(t.getDescription())
+                        .amount(t.getAmount())
+                        .type(t.getType() != null ? t.getType().name() : "EXPENSE")
+                        .category(category)
+                        .date(due)
+                        .build());
+                due = schedule.nextAfter(due);
+            }
+        }
+        out.sort(Comparator.comparing(UpcomingOccurrenceResponse::getDate));
+        return out.size() > max ? new ArrayList<>(out.subList(0, max)) : out;
     }
 
     public ExpenseResponse updateRecurring(String userId, String expenseId, Boolean isRecurring, String interval) {
         Expense expense = expenseRepository.findByIdAndUserId(expenseId, userId)
                 .orElseThrow(() -> new RuntimeException("Expense not found or access denied!"));
+        Integer expectedVersion = expense.getMetadata() != null ? expense.getMetadata().getVersion() : null;
         Expense.Recurring r = expense.getRecurring() != null ? expense.getRecurring() : new Expense.Recurring();
         if (isRecurring != null) r.setIsRecurring(isRecurring);
         if (interval != null) r.setFrequency(normalizeFrequency(interval));
@@ -448,26 +737,22 @@ public class ExpenseService {
             if (r.getFrequency() == null || r.getFrequency().isBlank()) {
                 throw new IllegalArgumentException("Recurring interval is required when recurring=true");
             }
-            LocalDateTime todayStart = LocalDateTime.now().withHour(0).withMinute(0).withSecond(0).withNano(0);
-            LocalDateTime startAt = (r.getStartDate() != null)
-                    ? r.getStartDate().atStartOfDay()
-                    : todayStart;
-            LocalDateTime next = computeNextOnOrAfter(startAt, r.getFrequency(), todayStart);
-            if (r.getEndDate() != null) {
-                LocalDateTime endAt = r.getEndDate().atStartOfDay();
-                if (next.isAfter(endAt)) {
-                    r.setIsRecurring(false);
-                    next = null;
-                }
-            }
-            r.setNextDue(next);
+            // Without a startDate the schedule starts today
+            scheduleNext(userZone(userId), r, null);
         } else {
             r.setNextDue(null);
         }
         expense.setRecurring(r);
+        if (expense.getMetadata() == null) expense.setMetadata(new Expense.Metadata());
         expense.getMetadata().setUpdatedAt(LocalDateTime.now());
-        Expense saved = expenseRepository.save(expense);
-        return convertToResponse(saved);
+        expense.getMetadata().setVersion((expectedVersion != null ? expectedVersion : 0) + 1);
+
+        // Same optimistic write as updateExpense: saving the document read above would put back an amount, date or
+        // category a concurrent edit has changed (and adjusted the totals for) in the meantime
+        if (!expenseRepository.replaceIfVersion(expense, expectedVersion)) {
+            throw new RuntimeException("Expense was modified concurrently, please retry");
+        }
+        return convertToResponse(expense);
     }
 }
 
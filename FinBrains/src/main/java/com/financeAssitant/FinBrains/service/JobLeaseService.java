@@ -0,0 +1,50 @@
+package com.financeAssitant.FinBrains.service;
+
+import com.financeAssitant.FinBrains.entity.JobLease;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// Mongo-backed leases: a job runs only on the instance holding its unexpired lease
+@Service
+@RequiredArgsConstructor
+public class JobLeaseService {
+
+    private final MongoTemplate mongoTemplate;
+
+    private final String instanceId = ManagementFactory.getRuntimeMXBean().getName() + "-" + UUID.randomUUID();
+
+    // Take the lease if it is free, expired or already ours; extends it by ttl. Also used to renew.
+    public boolean tryAcquire(String job, Duration ttl) {
+        LocalDateTime now = LocalDateTime.now();
+        Query query = Query.query(Criteria.where("_id").is(job).orOperator(
+                Criteria.where("expiresAt").lt(now),
+                Criteria.where("owner").is(instanceId)));
+        Update update = new Update()
+                .set("owner", instanceId)
+                .set("expiresAt", now.plus(ttl))
+                .set("acquiredAt", now);
+        try {
+            return mongoTemplate.findAndModify(query, update,
+                    FindAndModifyOptions.options().upsert(true).returnNew(true), JobLease.class) != null;
+        } catch (DuplicateKeyException e) {
+            // Lease document exists and is held by another live instance, so the upsert collided on _id
+            return false;
+        }
+    }
+
+    public void release(String job) {
+        mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(job).and("owner").is(instanceId)),
+                new Update().set("expiresAt", LocalDateTime.now()), JobLease.class);
+    }
+}
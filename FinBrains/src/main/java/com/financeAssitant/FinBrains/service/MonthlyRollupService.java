@@ -0,0 +1,275 @@
+package com.financeAssitant.FinBrains.service;
+
+import com.financeAssitant.FinBrains.entity.Expense;
+import com.financeAssitant.FinBrains.entity.MonthlyRollup;
+import com.financeAssitant.FinBrains.entity.User;
+import com.financeAssitant.FinBrains.repository.ExpenseRepository;
+import com.financeAssitant.FinBrains.repository.ExpenseRepositoryCustom.MonthlyTotal;
+import com.financeAssitant.FinBrains.repository.MonthlyRollupRepository;
+import com.financeAssitant.FinBrains.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+@RequiredArgsConstructor
+public class MonthlyRollupService {
+
+    private static final Logger log = LoggerFactory.getLogger(MonthlyRollupService.class);
+    private static final int MAX_BUILD_ATTEMPTS = 5;
+
+    private final MongoTemplate mongoTemplate;
+    private final MonthlyRollupRepository rollupRepository;
+    private final ExpenseRepository expenseRepository;
+    private final UserRepository userRepository;
+    private final TotalsJournal totalsJournal;
+
+    // Primary-key lookup; a month that has never been built from the expenses (absent or provisional) is built once
+    public MonthlyRollup get(String userId, YearMonth ym) {
+        MonthlyRollup rollup = rollupRepository.findById(MonthlyRollup.idOf(userId, ym)).orElse(null);
+        return rollup != null && !Boolean.TRUE.equals(rollup.getProvisional()) ? rollup : build(userId, ym);
+    }
+
+    // Apply one expense to its month with $inc (sign = 1 on insert, -1 on delete). A month without a document
+    // gets a provisional one, so a build running concurrently sees the revision change instead of missing the write.
+    public void record(Expense expense, int sign) {
+        if (expense == null || expense.getUserId() == null || expense.getDate() == null) return;
+        YearMonth ym = YearMonth.from(expense.getDate());
+        double amt = sign * (expense.getAmount() != null ? expense.getAmount() : 0.0);
+        Update update = deltaUpdate(expense.getUserId(), ym, LocalDateTime.now())
+                .inc("count", sign);
+        if (expense.getType() == Expense.ExpenseType.INCOME) {
+            update.inc("income", amt);
+        } else {
+            update.inc("spent", amt);
+            update.inc("categories." + categoryKey(expense), amt);
+        }
+        mongoTemplate.upsert(Query.query(Criteria.where("_id").is(MonthlyRollup.idOf(expense.getUserId(), ym))),
+                update, MonthlyRollup.class);
+    }
+
+    // Same as record(e, 1) for many expenses: deltas are summed per month and sent as one unordered bulk write
+    public void recordAll(Collection<Expense> expenses) {
+        recordAll(List.of(), expenses);
+    }
+
+    // record(e, -1) for every removed and record(e, 1) for every added expense, in one unordered bulk write;
+    // an edit is its old snapshot removed and its new state added
+    public void recordAll(Collection<Expense> removed, Collection<Expense> added) {
+        Map<String, Map<String, Double>> incByRollup = new HashMap<>();
+        collect(incByRollup, removed, -1);
+        collect(incByRollup, added, 1);
+        if (incByRollup.isEmpty()) return;
+        BulkOperations ops = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, MonthlyRollup.class);
+        LocalDateTime now = LocalDateTime.now();
+        incByRollup.forEach((id, inc) -> {
+            Update update = deltaUpdate(id, now);
+            inc.forEach((field, v) -> {
+                if ("count".equals(field)) update.inc(field, v.longValue()); else update.inc(field, v);
+            });
+            ops.upsert(Query.query(Criteria.where("_id").is(id)), update);
+        });
+        ops.execute();
+    }
+
+    private void collect(Map<String, Map<String, Double>> incByRollup, Collection<Expense> expenses, int sign) {
+        for (Expense e : expenses) {
+            if (e.getUserId() == null || e.getDate() == null) continue;
+            Map<String, Double> inc = incByRollup.computeIfAbsent(
+                    MonthlyRollup.idOf(e.getUserId(), YearMonth.from(e.getDate())), k -> new HashMap<>());
+            double amt = sign * (e.getAmount() != null ? e.getAmount() : 0.0);
+            inc.merge("count", (double) sign, Double::sum);
+            if (e.getType() == Expense.ExpenseType.INCOME) {
+                inc.merge("income", amt, Double::sum);
+            } else {
+                inc.merge("spent", amt, Double::sum);
+                inc.merge("categories." + categoryKey(e), amt, Double::sum);
+            }
+        }
+    }
+
+    // Rollup side of deleting a category: the deleted expenses leave their months entirely, the kept ones move
+    // to targetCategoryId (null: the uncategorized bucket), and every month drops the category's key
+    public void removeCategory(String userId, String categoryId, String targetCategoryId,
+                               Collection<MonthlyTotal> deleted, Collection<MonthlyTotal> moved) {
+        String targetKey = targetCategoryId != null ? targetCategoryId : MonthlyRollup.UNCATEGORIZED;
+        Map<String, Map<String, Double>> incByRollup = new HashMap<>();
+        for (MonthlyTotal t : deleted) {
+            Map<String, Double> inc = incByRollup.computeIfAbsent(MonthlyRollup.idOf(userId, t.month()), k -> new HashMap<>());
+            inc.merge("count", (double) -t.count(), Double::sum);
+            inc.merge(t.type() == Expense.ExpenseType.INCOME ? "income" : "spent", -t.total(), Double::sum);
+        }
+        for (MonthlyTotal t : moved) {
+            Map<String, Double> inc = incByRollup.computeIfAbsent(MonthlyRollup.idOf(userId, t.month()), k -> new HashMap<>());
+            if (t.type() != Expense.ExpenseType.INCOME) inc.merge("categories." + targetKey, t.total(), Double::sum);
+        }
+        if (incByRollup.isEmpty()) return;
+        BulkOperations ops = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, MonthlyRollup.class);
+        LocalDateTime now = LocalDateTime.now();
+        incByRollup.forEach((id, inc) -> {
+            Update update = deltaUpdate(id, now).unset("categories." + categoryId);
+            inc.forEach((field, v) -> {
+                if ("count".equals(field)) update.inc(field, v.longValue()); else update.inc(field, v);
+            });
+            ops.upsert(Query.query(Criteria.where("_id").is(id)), update);
+        });
+        ops.execute();
+    }
+
+    // Replace an expense's previous contribution with its current one
+    public void replace(Expense before, Expense after) {
+        record(before, -1);
+        record(after, 1);
+    }
+
+    // Recompute every month of a user from the raw expenses (repairs drift). Nothing is stored while an expense
+    // write of the user is in flight (its deltas would land on top); false then, or if a month could not be
+    // stored. Each month is replaced only if no $inc landed on it since it was read; months that changed
+    // meanwhile are rebuilt on their own.
+    public boolean rebuild(String userId) {
+        Map<String, MonthlyRollup> current = new HashMap<>();
+        rollupRepository.findByUserId(userId).forEach(r -> current.put(r.getMonth(), r));
+        if (totalsJournal.inFlight(userId, null)) return false;
+        Map<String, MonthlyRollup> byMonth = new HashMap<>();
+        for (MonthlyTotal t : expenseRepository.sumByMonthTypeAndCategory(userId, null, null)) {
+            MonthlyRollup r = byMonth.computeIfAbsent(t.month().toString(), m -> emptyRollup(userId, t.month()));
+            apply(r, t);
+        }
+        if (totalsJournal.inFlight(userId, null)) return false;
+        // Months whose expenses are all gone are zeroed rather than deleted, which would drop concurrent deltas
+        current.keySet().forEach(m -> byMonth.computeIfAbsent(m, k -> emptyRollup(userId, YearMonth.parse(k))));
+        boolean complete = true;
+        for (Map.Entry<String, MonthlyRollup> e : byMonth.entrySet()) {
+            MonthlyRollup existing = current.get(e.getKey());
+            if (store(e.getValue(), existing != null ? existing.getRevision() : null, existing != null) == null
+                    && build(userId, YearMonth.parse(e.getKey())).getRevision() == null) {
+                complete = false;
+            }
+        }
+        return complete;
+    }
+
+    // Weekly drift repair over all users, one page of users at a time
+    @Scheduled(cron = "${app.rollups.rebuild-cron:0 45 3 * * SUN}")
+    public void rebuildAll() {
+        int page = 0;
+        Page<User> users;
+        do {
+            users = userRepository.findAll(PageRequest.of(page++, 200));
+            for (User u : users) {
+                try {
+                    if (!rebuild(u.getId())) {
+                        log.debug("Monthly rollups of user {} were being written; left for the next run", u.getId());
+                    }
+                } catch (RuntimeException e) {
+                    log.warn("Monthly rollup rebuild failed for user {}: {}", u.getId(), e.getMessage());
+                }
+            }
+        } while (users.hasNext());
+    }
+
+    // Builds one month from the expenses. The result is stored only if no expense write touching the month was
+    // in flight before or after aggregating (the aggregation may already see expenses whose $inc is still to come)
+    // and the month's revision is still the one read before (no $inc landed meanwhile); otherwise the month is
+    // aggregated again. If it keeps changing the month is served unstored (revision null) and stays provisional.
+    private MonthlyRollup build(String userId, YearMonth ym) {
+        String id = MonthlyRollup.idOf(userId, ym);
+        for (int attempt = 1; ; attempt++) {
+            MonthlyRollup existing = rollupRepository.findById(id).orElse(null);
+            boolean quiet = !totalsJournal.inFlight(userId, ym);
+            MonthlyRollup built = emptyRollup(userId, ym);
+            expenseRepository.sumByMonthTypeAndCategory(
+                    userId, ym.atDay(1).atStartOfDay(), ym.atEndOfMonth().atTime(23, 59, 59)).forEach(t -> apply(built, t));
+            if (quiet && !totalsJournal.inFlight(userId, ym)) {
+                MonthlyRollup stored = store(built, existing != null ? existing.getRevision() : null, existing != null);
+                if (stored != null) return stored;
+            }
+            if (attempt >= MAX_BUILD_ATTEMPTS) {
+                log.warn("Monthly rollup {} kept changing while being built; serving it from the expenses", id);
+                return built;
+            }
+        }
+    }
+
+    // Inserts the built month, or replaces the stored one if its revision is unchanged; null when a write got there first
+    private MonthlyRollup store(MonthlyRollup built, Long revision, boolean exists) {
+        if (!exists) {
+            try {
+                built.setRevision(0L);
+                return rollupRepository.insert(built);
+            } catch (DuplicateKeyException e) {
+                return null;
+            }
+        }
+        return mongoTemplate.findAndModify(
+                Query.query(Criteria.where("_id").is(built.getId()).and("revision").is(revision)),
+                new Update()
+                        .set("income", built.getIncome())
+                        .set("spent", built.getSpent())
+                        .set("count", built.getCount())
+                        .set("categories", built.getCategories())
+                        .set("updatedAt", built.getUpdatedAt())
+                        .unset("provisional")
+                        .inc("revision", 1),
+                FindAndModifyOptions.options().returnNew(true),
+                MonthlyRollup.class);
+    }
+
+    // Common part of every $inc: revision bump, and the identity fields when the upsert creates a provisional month
+    private Update deltaUpdate(String userId, YearMonth ym, LocalDateTime now) {
+        return new Update()
+                .set("updatedAt", now)
+                .inc("revision", 1)
+                .setOnInsert("userId", userId)
+                .setOnInsert("month", ym.toString())
+                .setOnInsert("provisional", true);
+    }
+
+    private Update deltaUpdate(String rollupId, LocalDateTime now) {
+        int sep = rollupId.lastIndexOf(':');
+        return deltaUpdate(rollupId.substring(0, sep), YearMonth.parse(rollupId.substring(sep + 1)), now);
+    }
+
+    private MonthlyRollup emptyRollup(String userId, YearMonth ym) {
+        return MonthlyRollup.builder()
+                .id(MonthlyRollup.idOf(userId, ym))
+                .userId(userId)
+                .month(ym.toString())
+                .updatedAt(LocalDateTime.now())
+                .build();
+    }
+
+    private void apply(MonthlyRollup r, MonthlyTotal t) {
+        r.setCount(r.getCount() + t.count());
+        if (t.type() == Expense.ExpenseType.INCOME) {
+            r.setIncome(r.getIncome() + t.total());
+        } else {
+            r.setSpent(r.getSpent() + t.total());
+            String key = t.categoryId() != null ? t.categoryId() : MonthlyRollup.UNCATEGORIZED;
+            r.getCategories().merge(key, t.total(), Double::sum);
+        }
+    }
+
+    private String categoryKey(Expense expense) {
+        String id = expense.categoryId();
+        return id != null ? id : MonthlyRollup.UNCATEGORIZED;
+    }
+}
@@ -1,100 +1,270 @@
 package com.financeAssitant.FinBrains.service;
 
 import com.financeAssitant.FinBrains.entity.Expense;
+import com.financeAssitant.FinBrains.entity.JobCheckpoint;
 import com.financeAssitant.FinBrains.repository.ExpenseRepository;
+import com.financeAssitant.FinBrains.repository.JobCheckpointRepository;
+import com.financeAssitant.FinBrains.utility.RecurrenceSchedule;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Service
 public class RecurringExpenseService {
 
+    private static final Logger log = LoggerFactory.getLogger(RecurringExpenseService.class);
+    static final String JOB = "recurring-expenses";
+    // Occurrences buffered per worker before they are written
+    private static final int FLUSH_SIZE = 1000;
+
     private final ExpenseRepository expenseRepository;
+    private final MonthlyRollupService monthlyRollupService;
+    private final BalanceService balanceService;
+    private final TotalsJournal totalsJournal;
+    private final MongoTemplate mongoTemplate;
+    private final JobCheckpointRepository checkpointRepository;
+    private final JobLeaseService leaseService;
+    private final Duration leaseTtl;
+    private final int workerCount;
+    private final int pageSize;
+    private final int maxCatchUp;
+    private final Executor workers;
 
-    public RecurringExpenseService(ExpenseRepository expenseRepository) {
+    public RecurringExpenseService(ExpenseRepository expenseRepository, MonthlyRollupService monthlyRollupService,
+                                   BalanceService balanceService, TotalsJournal totalsJournal,
+                                   MongoTemplate mongoTemplate,
+                                   JobCheckpointRepository checkpointRepository, JobLeaseService leaseService,
+                                   @Value("${app.recurring.lease-ttl:10m}") Duration leaseTtl,
+                                   @Value("${app.recurring.workers:4}") int workerCount,
+                                   @Value("${app.recurring.page-size:1000}") int pageSize,
+                                   @Value("${app.recurring.max-catch-up:400}") int maxCatchUp,
+                                   @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
         this.expenseRepository = expenseRepository;
+        this.monthlyRollupService = monthlyRollupService;
+        this.balanceService = balanceService;
+        this.totalsJournal = totalsJournal;
+        this.mongoTemplate = mongoTemplate;
+        this.checkpointRepository = checkpointRepository;
+        this.leaseService = leaseService;
+        this.leaseTtl = leaseTtl;
+        this.workerCount = Math.max(1, workerCount);
+        this.pageSize = Math.max(1, pageSize);
+        this.maxCatchUp = Math.max(1, maxCatchUp);
+        this.workers = virtualThreads ? virtualWorkers(this.workerCount) : platformWorkers(this.workerCount);
+    }
+
+    // A page never has more partitions than workers, so the concurrency limit only guards against misuse
+    private static Executor virtualWorkers(int workerCount) {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("recurring-");
+        executor.setVirtualThreads(true);
+        executor.setConcurrencyLimit(workerCount);
+        return executor;
+    }
+
+    private static Executor platformWorkers(int workerCount) {
+        AtomicInteger threads = new AtomicInteger();
+        return Executors.newFixedThreadPool(workerCount, r -> {
+            Thread t = new Thread(r, "recurring-" + threads.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (workers instanceof ExecutorService pool) pool.shutdown();
     }
 
-    // Runs every day at 02:15 AM server time
-    @Scheduled(cron = "0 15 2 * * *")
+    // Runs every day at 02:15 AM server time, on whichever instance holds the job lease
+    @Scheduled(cron = "${app.recurring.cron:0 15 2 * * *}")
     public void processDueRecurringExpenses() {
-        List<Expense> due = expenseRepository
-                .findByRecurring_IsRecurringTrueAndRecurring_NextDueLessThanEqual(LocalDateTime.now());
-        if (due == null || due.isEmpty()) return;
-
-        List<Expense> toInsert = new ArrayList<>();
-        for (Expense template : due) {
-            if (template.getRecurring() == null || template.getRecurring().getNextDue() == null) continue;
-
-            // Respect endDate: skip and disable if beyond end
-            if (template.getRecurring().getEndDate() != null) {
-                LocalDateTime endAt = template.getRecurring().getEndDate().atStartOfDay();
-                if (template.getRecurring().getNextDue().isAfter(endAt)) {
-                    template.getRecurring().setIsRecurring(false);
-                    template.getRecurring().setNextDue(null);
-                    continue;
-                }
+        if (!leaseService.tryAcquire(JOB, leaseTtl)) {
+            log.debug("Recurring run skipped: lease held by another instance");
+            return;
+        }
+        try {
+            run();
+        } finally {
+            leaseService.release(JOB);
+        }
+    }
+
+    // Due templates are read one page at a time in (nextDue, _id) order; each page is split by userId
+    // across the worker pool and progress is checkpointed after it.
+    private void run() {
+        JobCheckpoint checkpoint = startOrResume();
+        LocalDateTime cutoff = checkpoint.getCutoff();
+        AtomicLong created = new AtomicLong();
+
+        while (true) {
+            List<Expense> page = expenseRepository.findDueTemplatesAfter(
+                    cutoff, checkpoint.getLastKey(), checkpoint.getLastId(), pageSize);
+            if (page.isEmpty()) break;
+            // Keyset position is taken before the templates are advanced
+            Expense last = page.get(page.size() - 1);
+            LocalDateTime lastKey = last.getRecurring().getNextDue();
+
+            Map<Integer, List<Expense>> partitions = new HashMap<>();
+            for (Expense template : page) {
+                int slot = Math.floorMod(String.valueOf(template.getUserId()).hashCode(), workerCount);
+                partitions.computeIfAbsent(slot, k -> new ArrayList<>()).add(template);
             }
+            CompletableFuture.allOf(partitions.values().stream()
+                    .map(templates -> CompletableFuture.runAsync(
+                            () -> created.addAndGet(processPartition(templates, cutoff)), workers))
+                    .toArray(CompletableFuture[]::new)).join();
+
+            checkpoint.setLastKey(lastKey);
+            checkpoint.setLastId(last.getId());
+            checkpoint.setProcessed(checkpoint.getProcessed() + page.size());
+            checkpoint.setUpdatedAt(LocalDateTime.now());
+            checkpointRepository.save(checkpoint);
 
-            // Create a new expense record for the scheduled date
-            Expense newExp = Expense.builder()
-                    .userId(template.getUserId())
-                    .amount(template.getAmount())
-                    .description(template.getDescription())
-                    .category(template.getCategory())
-                    .subcategory(template.getSubcategory())
-                    .date(template.getRecurring().getNextDue())
-                    .paymentMethod(template.getPaymentMethod())
-                    .tags(template.getTags())
-                    .recurring(Expense.Recurring.builder()
-                            .isRecurring(false)
-                            .frequency(template.getRecurring().getFrequency())
-                            .startDate(template.getRecurring().getStartDate())
-                            .endDate(template.getRecurring().getEndDate())
-                            .nextDue(null)
-                            .build())
-                    .metadata(new Expense.Metadata())
-                    .build();
-            toInsert.add(newExp);
-
-            // Bump nextDue for the template (do not disable recurring)
-            if (template.getRecurring() != null) {
-                String freq = template.getRecurring().getFrequency();
-                LocalDateTime current = template.getRecurring().getNextDue();
-                LocalDateTime next = computeNext(current, freq);
-                // Stop if exceeds endDate
-                if (template.getRecurring().getEndDate() != null) {
-                    LocalDateTime endAt = template.getRecurring().getEndDate().atStartOfDay();
-                    if (next.isAfter(endAt)) {
-                        template.getRecurring().setIsRecurring(false);
-                        template.getRecurring().setNextDue(null);
-                    } else {
-                        template.getRecurring().setNextDue(next);
-                    }
-                } else {
-                    template.getRecurring().setNextDue(next);
-                }
+            if (!leaseService.tryAcquire(JOB, leaseTtl)) {
+                // Another instance took over an expired lease; it resumes from this checkpoint
+                log.warn("Recurring run lost its lease after {} templates", checkpoint.getProcessed());
+                return;
             }
         }
 
-        if (!toInsert.isEmpty()) expenseRepository.saveAll(toInsert);
-        expenseRepository.saveAll(due); // persist nextDue updates
+        checkpoint.setStatus(JobCheckpoint.Status.DONE);
+        checkpoint.setFinishedAt(LocalDateTime.now());
+        checkpointRepository.save(checkpoint);
+        log.info("Recurring run up to {} processed {} templates, created {} expenses",
+                cutoff, checkpoint.getProcessed(), created.get());
     }
 
-    private LocalDateTime computeNext(LocalDateTime from, String freq) {
-        if (from == null) from = LocalDateTime.now();
-        String f = freq != null ? freq.trim().toUpperCase() : "MONTHLY";
-        switch (f) {
-            case "DAILY": return from.plusDays(1);
-            case "WEEKLY": return from.plusWeeks(1);
-            case "MONTHLY": return from.plusMonths(1);
-            case "QUARTERLY": return from.plusMonths(3);
-            case "YEARLY": return from.plusYears(1);
-            case "CUSTOM":
-            default: return from.plusMonths(1);
+    // An unfinished run is resumed with its original cutoff and position; otherwise a new run starts now
+    private JobCheckpoint startOrResume() {
+        JobCheckpoint existing = checkpointRepository.findById(JOB).orElse(null);
+        if (existing != null && existing.getStatus() == JobCheckpoint.Status.RUNNING) {
+            log.info("Resuming recurring run up to {} after {} templates", existing.getCutoff(), existing.getProcessed());
+            return existing;
         }
+        LocalDateTime now = LocalDateTime.now();
+        return checkpointRepository.save(JobCheckpoint.builder()
+                .id(JOB)
+                .status(JobCheckpoint.Status.RUNNING)
+                .cutoff(now)
+                .startedAt(now)
+                .updatedAt(now)
+                .build());
+    }
+
+    // Materializes every missed occurrence (up to maxCatchUp per template and run) and advances the templates
+    private long processPartition(List<Expense> templates, LocalDateTime cutoff) {
+        List<Expense> occurrences = new ArrayList<>();
+        List<Query> templateQueries = new ArrayList<>();
+        List<Update> templateUpdates = new ArrayList<>();
+        long created = 0;
+
+        for (Expense template : templates) {
+            Expense.Recurring recurring = template.getRecurring();
+            if (recurring == null || recurring.getNextDue() == null) continue;
+            RecurrenceSchedule schedule;
+            try {
+                schedule = RecurrenceSchedule.of(recurring, recurring.getNextDue());
+            } catch (IllegalArgumentException e) {
+                log.warn("Skipping recurring template {} with an invalid rule: {}", template.getId(), e.getMessage());
+                continue;
+            }
+
+            LocalDateTime due = recurring.getNextDue();
+            if (schedule.endAt() != null && due.isAfter(schedule.endAt())) due = null;
+            int n = 0;
+            while (due != null && !due.isAfter(cutoff) && n < maxCatchUp) {
+                occurrences.add(occurrenceOf(template, due));
+                due = schedule.nextAfter(due);
+                n++;
+            }
+
+            // Stop the template once it runs past its endDate
+            Update update = due == null
+                    ? new Update().set("recurring.isRecurring", false).set("recurring.nextDue", null)
+                    : new Update().set("recurring.nextDue", due);
+            // Skip the advance if the template was edited since it was read
+            templateQueries.add(Query.query(Criteria.where("_id").is(template.getId())
+                    .and("recurring.nextDue").is(recurring.getNextDue())));
+            templateUpdates.add(update);
+
+            if (occurrences.size() >= FLUSH_SIZE) {
+                created += flush(occurrences, templateQueries, templateUpdates);
+            }
+        }
+        return created + flush(occurrences, templateQueries, templateUpdates);
+    }
+
+    // Occurrences are written before the templates that produced them are advanced
+    private long flush(List<Expense> occurrences, List<Query> templateQueries, List<Update> templateUpdates) {
+        long created = 0;
+        if (!occurrences.isEmpty()) {
+            // Occurrences already written by an earlier attempt hit uniq_recurring_occurrence and are skipped,
+            // so totals are not counted twice. That retry would also skip the totals of an attempt that died
+            // between insert and deltas; its journal entries fail or time out and the sweeper rebuilds those users.
+            List<Expense> inserted = totalsJournal.write(occurrences, () -> {
+                List<Expense> fresh = expenseRepository.insertIgnoringDuplicates(occurrences);
+                monthlyRollupService.recordAll(fresh);
+                balanceService.applyAll(fresh);
+                return fresh;
+            });
+            created = inserted.size();
+            occurrences.clear();
+        }
+        if (!templateQueries.isEmpty()) {
+            BulkOperations ops = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Expense.class);
+            for (int i = 0; i < templateQueries.size(); i++) {
+                ops.updateOne(templateQueries.get(i), templateUpdates.get(i));
+            }
+            ops.execute();
+            templateQueries.clear();
+            templateUpdates.clear();
+        }
+        return created;
+    }
+
+    private Expense occurrenceOf(Expense template, LocalDateTime due) {
+        return Expense.builder()
+                .userId(template.getUserId())
+                .amount(template.getAmount())
+                .type(template.getType())
+                .description(template.getDescription())
+                .category(template.getCategory())
+                .categoryRef(template.getCategoryRef())
+                .subcategory(template.getSubcategory())
+                .date(due)
+                .paymentMethod(template.getPaymentMethod())
+                .tags(template.getTags())
+                .recurring(Expense.Recurring.builder()
+                        .isRecurring(false)
+                        .frequency(template.getRecurring().getFrequency())
+                        .startDate(template.getRecurring().getStartDate())
+                        .endDate(template.getRecurring().getEndDate())
+                        .nextDue(null)
+                        .recurringGroupId(template.getId() + ":" + due)
+                        .build())
+                .metadata(new Expense.Metadata())
+                .build();
     }
 }
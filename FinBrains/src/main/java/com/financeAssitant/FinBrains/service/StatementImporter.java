@@ -0,0 +1,274 @@
+package com.financeAssitant.FinBrains.service;
+
+import com.financeAssitant.FinBrains.entity.Category;
+import com.financeAssitant.FinBrains.entity.Expense;
+import com.financeAssitant.FinBrains.entity.ImportJob;
+import com.financeAssitant.FinBrains.repository.ExpenseRepository;
+import com.financeAssitant.FinBrains.utility.StatementReader;
+import com.financeAssitant.FinBrains.utility.StatementRow;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+// Streams an uploaded statement into expenses, off the request thread: rows are parsed one at a time and written
+// in unordered bulk inserts of chunkSize, with rollups, balance and job progress updated once per chunk
+@Component
+public class StatementImporter {
+
+    private static final Logger log = LoggerFactory.getLogger(StatementImporter.class);
+    private static final String MONTHLY_INCOME = "Monthly Income";
+    // Parse errors kept on the job; the rest are only counted
+    private static final int MAX_ERRORS = 20;
+
+    private final ExpenseRepository expenseRepository;
+    private final CategoryService categoryService;
+    private final MonthlyRollupService monthlyRollupService;
+    private final BalanceService balanceService;
+    private final TotalsJournal totalsJournal;
+    private final MongoTemplate mongoTemplate;
+    private final int chunkSize;
+
+    public StatementImporter(ExpenseRepository expenseRepository, CategoryService categoryService,
+                             MonthlyRollupService monthlyRollupService, BalanceService balanceService,
+                             TotalsJournal totalsJournal, MongoTemplate mongoTemplate,
+                             @Value("${app.import.chunk-size:1000}") int chunkSize) {
+        this.expenseRepository = expenseRepository;
+        this.categoryService = categoryService;
+        this.monthlyRollupService = monthlyRollupService;
+        this.balanceService = balanceService;
+        this.totalsJournal = totalsJournal;
+        this.mongoTemplate = mongoTemplate;
+        this.chunkSize = Math.max(1, chunkSize);
+    }
+
+    // Owns the temp file and deletes it when done
+    @Async
+    public void run(ImportJob job, Path file, StatementReader.Format format, String dateFormat) {
+        Progress progress = new Progress();
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8);
+             StatementReader statement = StatementReader.open(reader, format, dateFormat)) {
+            importRows(job, statement, progress);
+            finish(job, progress, ImportJob.Status.DONE, null);
+            log.info("Import {} for user {}: {} rows, {} imported, {} duplicates, {} failed", job.getId(),
+                    job.getUserId(), progress.rows, progress.imported, progress.duplicates, progress.failed);
+        } catch (IOException | RuntimeException e) {
+            // Chunks written before the failure stay; re-running the same file skips them as duplicates
+            log.warn("Import {} failed after {} rows: {}", job.getId(), progress.rows, e.getMessage());
+            finish(job, progress, ImportJob.Status.FAILED, e.getMessage());
+        } finally {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                log.warn("Could not delete import file {}: {}", file, e.getMessage());
+            }
+        }
+    }
+
+    private void importRows(ImportJob job, StatementReader statement, Progress progress) throws IOException {
+        String userId = job.getUserId();
+        // One category read for the whole file; names are matched case-insensitively
+        Map<String, Category> categories = new HashMap<>();
+        for (Category c : categoryService.getAll(userId)) {
+            if (c.getName() != null) categories.putIfAbsent(c.getName().toLowerCase(Locale.ROOT), c);
+        }
+        Category monthlyIncome = categories.get(MONTHLY_INCOME.toLowerCase(Locale.ROOT));
+        // Identical rows within one file (two equal coffees on the same day) get distinct keys by occurrence
+        Map<String, Integer> occurrences = new HashMap<>();
+        List<Expense> chunk = new ArrayList<>(chunkSize);
+        LocalDateTime now = LocalDateTime.now();
+
+        while (true) {
+            StatementRow row;
+            try {
+                row = statement.next();
+            } catch (IllegalArgumentException e) {
+                progress.rows++;
+                progress.failed++;
+                if (progress.errors.size() < MAX_ERRORS) progress.errors.add(e.getMessage());
+                continue;
+            }
+            if (row == null) break;
+            progress.rows++;
+
+            Category category = row.category() != null ? categories.get(row.category().trim().toLowerCase(Locale.ROOT)) : null;
+            if (row.type() == Expense.ExpenseType.INCOME) {
+                category = monthlyIncome;
+            } else if (category == monthlyIncome) {
+                // 'Monthly Income' is reserved for INCOME entries
+                category = null;
+            }
+            String key = importKey(row, occurrences);
+            chunk.add(Expense.builder()
+                    .userId(userId)
+                    .amount(row.amount())
+                    .type(row.type())
+                    .description(row.description())
+                    .date(row.date())
+                    .category(category)
+                    .categoryRef(Expense.CategoryRef.of(category))
+                    .tags(row.tags())
+                    .paymentMethod(Expense.PaymentMethod.builder()
+                            .type(row.paymentType() != null ? row.paymentType() : "card")
+                            .build())
+                    .recurring(new Expense.Recurring())
+                    .metadata(Expense.Metadata.builder()
+                            .createdAt(now)
+                            .updatedAt(now)
+                            .createdBy("import")
+                            .source("import")
+                            .version(1)
+                            .importId(job.getId())
+                            .importKey(key)
+                            .build())
+                    .build());
+
+            if (chunk.size() >= chunkSize) {
+                write(chunk, progress);
+                saveProgress(job, progress);
+            }
+        }
+        write(chunk, progress);
+    }
+
+    // Rows matching an existing expense (entered by hand or imported before) are dropped first; rows already
+    // imported under the same key still hit uniq_user_import_key and are skipped by the insert. Only the inserted
+    // ones reach rollups and balance.
+    private void write(List<Expense> chunk, Progress progress) {
+        if (chunk.isEmpty()) return;
+        List<Expense> fresh = withoutExisting(chunk);
+        List<Expense> inserted = fresh.isEmpty() ? List.of() : totalsJournal.write(fresh, () -> {
+            List<Expense> written = expenseRepository.insertIgnoringDuplicates(fresh);
+            monthlyRollupService.recordAll(written);
+            balanceService.applyAll(written);
+            return written;
+        });
+        progress.imported += inserted.size();
+        progress.duplicates += chunk.size() - inserted.size();
+        chunk.clear();
+    }
+
+    // A row whose id column holds the _id of one of the user's expenses (a re-imported export) is that expense.
+    // Otherwise one query per chunk reads the user's expenses on the chunk's days with the chunk's amounts; each
+    // absorbs at most one row with the same day, type, amount and description, so two equal coffees in the
+    // statement against one entered by hand still import one.
+    private List<Expense> withoutExisting(List<Expense> chunk) {
+        Set<String> exportedIds = new HashSet<>();
+        for (Expense e : chunk) {
+            String id = exportedId(e);
+            if (id != null) exportedIds.add(id);
+        }
+        if (!exportedIds.isEmpty()) {
+            Set<String> known = expenseRepository.findExistingIds(chunk.get(0).getUserId(), exportedIds);
+            if (!known.isEmpty()) chunk = chunk.stream().filter(e -> !known.contains(exportedId(e))).toList();
+            if (chunk.isEmpty()) return chunk;
+        }
+
+        LocalDate first = null, last = null;
+        Set<Double> amounts = new HashSet<>();
+        for (Expense e : chunk) {
+            LocalDate day = e.getDate().toLocalDate();
+            if (first == null || day.isBefore(first)) first = day;
+            if (last == null || day.isAfter(last)) last = day;
+            amounts.add(e.getAmount());
+        }
+        Map<String, Integer> existing = new HashMap<>();
+        for (Expense e : expenseRepository.findImportMatchCandidates(chunk.get(0).getUserId(),
+                first.atStartOfDay(), last.atTime(LocalTime.MAX), amounts)) {
+            if (e.getDate() != null && e.getAmount() != null) existing.merge(matchKey(e), 1, Integer::sum);
+        }
+        if (existing.isEmpty()) return chunk;
+        List<Expense> fresh = new ArrayList<>(chunk.size());
+        for (Expense e : chunk) {
+            String key = matchKey(e);
+            Integer left = existing.get(key);
+            if (left != null && left > 0) existing.put(key, left - 1); else fresh.add(e);
+        }
+        return fresh;
+    }
+
+    private static String exportedId(Expense e) {
+        String key = e.getMetadata().getImportKey();
+        String id = key != null && key.startsWith("id:") ? key.substring(3) : null;
+        return id != null && ObjectId.isValid(id) ? id : null;
+    }
+
+    static String matchKey(Expense e) {
+        return e.getDate().toLocalDate() + "|" + (e.getType() != null ? e.getType() : Expense.ExpenseType.EXPENSE)
+                + "|" + Math.round(e.getAmount() * 100)
+                + "|" + (e.getDescription() != null ? e.getDescription().trim().toLowerCase(Locale.ROOT) : "");
+    }
+
+    // The bank's transaction id when the statement has one; otherwise a hash of the row and its occurrence in the file
+    static String importKey(StatementRow row, Map<String, Integer> occurrences) {
+        if (row.externalId() != null && !row.externalId().isBlank()) return "id:" + row.externalId().trim();
+        String content = row.date() + "|" + row.type() + "|" + row.amount() + "|"
+                + (row.description() != null ? row.description().trim().toLowerCase(Locale.ROOT) : "");
+        String hash = sha256(content);
+        int ordinal = occurrences.merge(hash, 1, Integer::sum);
+        return "h:" + hash + ":" + ordinal;
+    }
+
+    private static String sha256(String s) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(s.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void saveProgress(ImportJob job, Progress progress) {
+        mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(job.getId())),
+                progress.update().set("updatedAt", LocalDateTime.now()), ImportJob.class);
+    }
+
+    private void finish(ImportJob job, Progress progress, ImportJob.Status status, String message) {
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(job.getId())),
+                    progress.update().set("status", status).set("message", message)
+                            .set("updatedAt", now).set("finishedAt", now), ImportJob.class);
+        } catch (RuntimeException e) {
+            log.warn("Could not record the end of import {}: {}", job.getId(), e.getMessage());
+        }
+    }
+
+    private static class Progress {
+        long rows;
+        long imported;
+        long duplicates;
+        long failed;
+        final List<String> errors = new ArrayList<>();
+
+        Update update() {
+            return new Update().set("rows", rows).set("imported", imported).set("duplicates", duplicates)
+                    .set("failed", failed).set("errors", errors);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.financeAssitant.FinBrains.service;
+
+import com.financeAssitant.FinBrains.entity.Expense;
+import com.financeAssitant.FinBrains.entity.PendingTotals;
+import com.financeAssitant.FinBrains.repository.PendingTotalsRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+// Expense writes whose rollup/balance deltas are still on their way. A write is in flight from before its first
+// expense write until its last delta landed; a rebuild that saw none before and none after aggregating knows the
+// expenses it read and the deltas already applied agree. Writes that throw, or never finish within the timeout,
+// stop counting as in flight and are repaired by TotalsRepairSweeper.
+@Service
+public class TotalsJournal {
+
+    private final PendingTotalsRepository repository;
+    private final MongoTemplate mongoTemplate;
+    private final Duration timeout;
+
+    public TotalsJournal(PendingTotalsRepository repository, MongoTemplate mongoTemplate,
+                         @Value("${app.totals.pending-timeout:5m}") Duration timeout) {
+        this.repository = repository;
+        this.mongoTemplate = mongoTemplate;
+        this.timeout = timeout;
+    }
+
+    // Runs a write of the given expenses (for an edit: before and after) and the deltas that follow it
+    public <T> T write(Collection<Expense> expenses, Supplier<T> write) {
+        return run(open(expenses), write);
+    }
+
+    // Same for writes whose expenses are not known up front: every month of the user counts as touched
+    public <T> T writeAll(String userId, Supplier<T> write) {
+        PendingTotals entry = repository.insert(PendingTotals.builder().userId(userId).createdAt(LocalDateTime.now()).build());
+        return run(List.of(entry.getId()), write);
+    }
+
+    // Leaves the user's totals to TotalsRepairSweeper, for writes that could not tell which deltas apply
+    public void repairLater(String userId) {
+        repository.insert(PendingTotals.builder().userId(userId).createdAt(LocalDateTime.now()).failed(true).build());
+    }
+
+    // True while a write touching the user's month (null: any month or the balance) is in flight
+    public boolean inFlight(String userId, YearMonth month) {
+        String key = month != null ? month.toString() : null;
+        for (PendingTotals p : repository.findInFlight(userId, LocalDateTime.now().minus(timeout))) {
+            if (key == null || p.getMonths() == null || p.getMonths().contains(key)) return true;
+        }
+        return false;
+    }
+
+    // Entries older than this are treated as abandoned
+    public Duration timeout() {
+        return timeout;
+    }
+
+    private List<String> open(Collection<Expense> expenses) {
+        Map<String, Set<String>> monthsByUser = new LinkedHashMap<>();
+        for (Expense e : expenses) {
+            if (e == null || e.getUserId() == null) continue;
+            Set<String> months = monthsByUser.computeIfAbsent(e.getUserId(), k -> new LinkedHashSet<>());
+            if (e.getDate() != null) months.add(YearMonth.from(e.getDate()).toString());
+        }
+        if (monthsByUser.isEmpty()) return List.of();
+        LocalDateTime now = LocalDateTime.now();
+        List<PendingTotals> entries = new ArrayList<>();
+        monthsByUser.forEach((userId, months) -> entries.add(PendingTotals.builder()
+                .userId(userId)
+                .months(new ArrayList<>(months))
+                .createdAt(now)
+                .build()));
+        return repository.insert(entries).stream().map(PendingTotals::getId).toList();
+    }
+
+    private <T> T run(List<String> ids, Supplier<T> write) {
+        T result;
+        try {
+            result = write.get();
+        } catch (RuntimeException | Error e) {
+            if (!ids.isEmpty()) {
+                try {
+                    mongoTemplate.updateMulti(Query.query(Criteria.where("_id").in(ids)),
+                            new Update().set("failed", true), PendingTotals.class);
+                } catch (RuntimeException marking) {
+                    // Left as is, the entries are picked up once they time out
+                    e.addSuppressed(marking);
+                }
+            }
+            throw e;
+        }
+        if (!ids.isEmpty()) repository.deleteAllById(ids);
+        return result;
+    }
+}
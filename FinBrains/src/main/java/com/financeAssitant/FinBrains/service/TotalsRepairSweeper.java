@@ -0,0 +1,51 @@
+package com.financeAssitant.FinBrains.service;
+
+import com.financeAssitant.FinBrains.entity.PendingTotals;
+import com.financeAssitant.FinBrains.repository.PendingTotalsRepository;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Recomputes the totals of users with a failed or abandoned expense write: whatever part of its deltas landed,
+// the rollups and balance are rebuilt from the expenses. An entry is only removed once its user was repaired.
+@Component
+@RequiredArgsConstructor
+public class TotalsRepairSweeper {
+
+    private static final Logger log = LoggerFactory.getLogger(TotalsRepairSweeper.class);
+    private static final int PAGE = 100;
+
+    private final PendingTotalsRepository repository;
+    private final TotalsJournal totalsJournal;
+    private final MonthlyRollupService monthlyRollupService;
+    private final BalanceService balanceService;
+
+    @Scheduled(fixedDelayString = "${app.totals.repair-interval:PT1M}")
+    public void sweep() {
+        List<PendingTotals> unfinished = repository.findUnfinished(
+                LocalDateTime.now().minus(totalsJournal.timeout()), PageRequest.of(0, PAGE));
+        Map<String, List<String>> idsByUser = new LinkedHashMap<>();
+        unfinished.forEach(p -> idsByUser.computeIfAbsent(p.getUserId(), k -> new ArrayList<>()).add(p.getId()));
+        idsByUser.forEach((userId, ids) -> {
+            try {
+                boolean rebuilt = monthlyRollupService.rebuild(userId);
+                boolean reconciled = balanceService.reconcile(userId).getRevision() != null;
+                if (rebuilt && reconciled) {
+                    repository.deleteAllById(ids);
+                    log.info("Repaired totals of user {} after {} unfinished writes", userId, ids.size());
+                }
+            } catch (RuntimeException e) {
+                log.warn("Totals repair for user {} failed: {}", userId, e.getMessage());
+            }
+        });
+    }
+}
@@ -29,6 +29,9 @@ public class UserService {
     @Autowired
     private EmailService emailService;
 
+    @Autowired
+    private CategoryService categoryService;
+
     private boolean isStrongPassword(String p) {
         return p != null && p.length() >= 8 &&
                 p.matches(".*[A-Z].*") &&
@@ -70,6 +73,7 @@ public class UserService {
 
         // Save user
         User savedUser = userRepository.save(user);
+        categoryService.seedDefaults(savedUser.getId());
 
         // Skip sending verification email (feature disabled)
 
@@ -0,0 +1,46 @@
+package com.financeAssitant.FinBrains.utility;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// Keywords for a category: the words of its name followed by the most frequent words of its past expense descriptions
+public final class CategoryKeywords {
+
+    private static final Set<String> STOP_WORDS = Set.of("the", "a", "an", "and", "to", "for", "of", "on", "in", "at",
+            "with", "by", "is", "was", "this", "that", "order", "payment", "txn", "paid", "bill", "recharge");
+    private static final int MAX_LEARNED = 12;
+
+    private CategoryKeywords() {
+    }
+
+    // descriptions are expected most recent first; ties keep the order a word was first seen in
+    public static List<String> extract(String categoryName, Iterable<String> descriptions) {
+        String nm = categoryName == null ? "" : categoryName;
+        List<String> base = Arrays.stream(nm.toLowerCase().split("[^a-z0-9]+"))
+                .filter(s -> !s.isBlank())
+                .collect(Collectors.toList());
+
+        Map<String, Integer> freq = new LinkedHashMap<>();
+        for (String desc : descriptions) {
+            if (desc == null) continue;
+            for (String t : desc.toLowerCase().split("[^a-z0-9]+")) {
+                if (t.length() < 3 || STOP_WORDS.contains(t)) continue;
+                freq.merge(t, 1, Integer::sum);
+            }
+        }
+        List<String> learned = freq.entrySet().stream()
+                .sorted((a, b) -> Integer.compare(b.getValue(), a.getValue()))
+                .limit(MAX_LEARNED)
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+
+        return Stream.concat(base.stream(), learned.stream())
+                .distinct()
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,266 @@
+package com.financeAssitant.FinBrains.utility;
+
+import com.financeAssitant.FinBrains.entity.Expense;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+// RFC 4180 CSV statement with a header row. Recognized columns (case-insensitive, common bank aliases):
+// date, description, amount or debit/credit, type, category, payment, tags (';' or '|' separated), id.
+// Without a type or debit/credit column the sign decides: negative amounts are expenses, positive ones income.
+class CsvStatementReader implements StatementReader {
+
+    private static final int MAX_RECORD_CHARS = 64 * 1024;
+    private static final Map<String, String> ALIASES = new HashMap<>();
+    private static final List<DateTimeFormatter> DATE_TIMES = List.of(
+            DateTimeFormatter.ISO_LOCAL_DATE_TIME,
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm[:ss]"),
+            DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm[:ss]"));
+    private static final List<DateTimeFormatter> DATES = List.of(
+            DateTimeFormatter.ISO_LOCAL_DATE,
+            DateTimeFormatter.ofPattern("dd/MM/yyyy"),
+            DateTimeFormatter.ofPattern("dd-MM-yyyy"),
+            DateTimeFormatter.ofPattern("dd.MM.yyyy"),
+            DateTimeFormatter.ofPattern("d MMM yyyy", Locale.ENGLISH),
+            DateTimeFormatter.ofPattern("dd-MMM-yyyy", Locale.ENGLISH),
+            DateTimeFormatter.ofPattern("yyyy/MM/dd"));
+    private static final List<DateTimeFormatter> DATE_FORMATS =
+            Stream.concat(DATE_TIMES.stream(), DATES.stream()).toList();
+    private static final Pattern NON_AMOUNT = Pattern.compile("[^0-9.,]");
+
+    static {
+        alias("date", "date", "transaction date", "txn date", "posted date", "posting date", "value date");
+        alias("description", "description", "narration", "details", "particulars", "memo", "payee", "name");
+        alias("amount", "amount", "transaction amount");
+        alias("debit", "debit", "withdrawal", "withdrawal amount", "withdrawal amt", "dr");
+        alias("credit", "credit", "deposit", "deposit amount", "deposit amt", "cr");
+        alias("type", "type", "transaction type", "dr/cr");
+        alias("category", "category");
+        alias("payment", "payment", "payment method", "payment type", "mode");
+        alias("tags", "tags");
+        alias("id", "id", "transaction id", "reference", "ref no", "reference number");
+    }
+
+    private static void alias(String column, String... names) {
+        for (String n : names) ALIASES.put(n, column);
+    }
+
+    private final BufferedReader in;
+    private final DateTimeFormatter dateFormat; // null: try the common formats
+    private final char delimiter;
+    private DateTimeFormatter detectedDate;
+    private final Map<String, Integer> columns = new HashMap<>();
+    private long line; // physical line where the current record starts (1-based, header = 1)
+    private long nextLine = 1;
+
+    CsvStatementReader(Reader reader, String dateFormat) throws IOException {
+        this.in = reader instanceof BufferedReader b ? b : new BufferedReader(reader);
+        try {
+            this.dateFormat = dateFormat != null && !dateFormat.isBlank() ? DateTimeFormatter.ofPattern(dateFormat.trim()) : null;
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid dateFormat '" + dateFormat + "': " + e.getMessage());
+        }
+        in.mark(MAX_RECORD_CHARS);
+        String first = in.readLine();
+        if (first == null) throw new IllegalArgumentException("Empty statement");
+        in.reset();
+        this.delimiter = first.indexOf(';') >= 0 && first.indexOf(',') < 0 ? ';'
+                : first.indexOf('\t') >= 0 && first.indexOf(',') < 0 ? '\t' : ',';
+
+        List<String> header = readRecord();
+        for (int i = 0; header != null && i < header.size(); i++) {
+            String column = ALIASES.get(header.get(i).trim().toLowerCase(Locale.ROOT).replace("\uFEFF", ""));
+            if (column != null) columns.putIfAbsent(column, i);
+        }
+        if (!columns.containsKey("date") || !(columns.containsKey("amount") || columns.containsKey("debit") || columns.containsKey("credit"))) {
+            throw new IllegalArgumentException("CSV header must have a date column and an amount (or debit/credit) column");
+        }
+    }
+
+    @Override
+    public StatementRow next() throws IOException {
+        List<String> record;
+        do {
+            record = readRecord();
+            if (record == null) return null;
+        } while (record.size() == 1 && record.get(0).isBlank());
+
+        LocalDateTime date = parseDate(field(record, "date"));
+        String typeText = field(record, "type");
+        String debit = field(record, "debit");
+        String credit = field(record, "credit");
+
+        double amount;
+        Expense.ExpenseType type;
+        if (!debit.isBlank() && parseAmount(debit) != 0) {
+            amount = parseAmount(debit);
+            type = Expense.ExpenseType.EXPENSE;
+        } else if (!credit.isBlank() && parseAmount(credit) != 0) {
+            amount = parseAmount(credit);
+            type = Expense.ExpenseType.INCOME;
+        } else {
+            amount = parseAmount(field(record, "amount"));
+            type = amount < 0 ? Expense.ExpenseType.EXPENSE : Expense.ExpenseType.INCOME;
+        }
+        if (!typeText.isBlank()) type = parseType(typeText);
+        if (amount == 0) throw new IllegalArgumentException("Line " + line + ": amount is missing or zero");
+
+        String tags = text(record, "tags");
+        return new StatementRow(line, date, Math.abs(amount), type,
+                blankToNull(text(record, "description")),
+                blankToNull(text(record, "category")),
+                blankToNull(text(record, "payment")),
+                tags.isBlank() ? null : Arrays.stream(tags.split("[;|]")).map(String::trim).filter(t -> !t.isEmpty()).toList(),
+                blankToNull(text(record, "id")));
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private String field(List<String> record, String column) {
+        Integer i = columns.get(column);
+        return i != null && i < record.size() ? record.get(i) : "";
+    }
+
+    // Text cell with the export's formula-injection escape undone: a ' in front of = + - @ or ' is dropped
+    private String text(List<String> record, String column) {
+        String v = field(record, column).trim();
+        return v.length() > 1 && v.charAt(0) == '\'' && "=+-@'".indexOf(v.charAt(1)) >= 0 ? v.substring(1) : v;
+    }
+
+    private static String blankToNull(String s) {
+        return s == null || s.isBlank() ? null : s.trim();
+    }
+
+    private LocalDateTime parseDate(String text) {
+        String t = text.trim();
+        if (t.isEmpty()) throw new IllegalArgumentException("Line " + line + ": date is missing");
+        if (dateFormat != null) {
+            try {
+                var parsed = dateFormat.parseBest(t, LocalDateTime::from, LocalDate::from);
+                return parsed instanceof LocalDate d ? d.atStartOfDay() : (LocalDateTime) parsed;
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("Line " + line + ": date '" + t + "' does not match the given format");
+            }
+        }
+        // A statement uses one format throughout: the one that matched last is tried first, so failed
+        // attempts (and their exceptions) are not paid on every row
+        if (detectedDate != null) {
+            LocalDateTime parsed = tryParse(t, detectedDate);
+            if (parsed != null) return parsed;
+        }
+        for (DateTimeFormatter f : DATE_FORMATS) {
+            LocalDateTime parsed = f == detectedDate ? null : tryParse(t, f);
+            if (parsed != null) {
+                detectedDate = f;
+                return parsed;
+            }
+        }
+        throw new IllegalArgumentException("Line " + line + ": unrecognized date '" + t + "'");
+    }
+
+    private static LocalDateTime tryParse(String text, DateTimeFormatter f) {
+        try {
+            return DATE_TIMES.contains(f) ? LocalDateTime.parse(text, f) : LocalDate.parse(text, f).atStartOfDay();
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    // Accepts currency symbols, thousands separators, (123.45) and trailing CR/DR markers
+    private double parseAmount(String text) {
+        String t = text.trim().toUpperCase(Locale.ROOT);
+        if (t.isEmpty()) return 0;
+        boolean negative = t.startsWith("(") && t.endsWith(")") || t.startsWith("-") || t.endsWith("DR");
+        String digits = NON_AMOUNT.matcher(t).replaceAll("");
+        int comma = digits.lastIndexOf(','), dot = digits.lastIndexOf('.');
+        if (comma >= 0 && dot >= 0) {
+            // Whichever separator comes last is the decimal one: 1,200.50 or 1.200,50
+            digits = comma > dot ? digits.replace(".", "").replace(',', '.') : digits.replace(",", "");
+        } else if (comma >= 0) {
+            // 12,50 in ';' separated exports, thousands otherwise
+            digits = delimiter == ';' && comma == digits.indexOf(',') ? digits.replace(',', '.') : digits.replace(",", "");
+        } else if (dot != digits.indexOf('.')) {
+            digits = digits.replace(".", ""); // 1.200.000
+        }
+        try {
+            double v = Double.parseDouble(digits);
+            return negative ? -v : v;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Line " + line + ": invalid amount '" + text.trim() + "'");
+        }
+    }
+
+    private Expense.ExpenseType parseType(String text) {
+        return switch (text.trim().toUpperCase(Locale.ROOT)) {
+            case "EXPENSE", "DEBIT", "DR", "D", "WITHDRAWAL" -> Expense.ExpenseType.EXPENSE;
+            case "INCOME", "CREDIT", "CR", "C", "DEPOSIT" -> Expense.ExpenseType.INCOME;
+            default -> throw new IllegalArgumentException("Line " + line + ": invalid type '" + text.trim() + "'");
+        };
+    }
+
+    // One record, possibly spanning lines inside quotes; null at end of input
+    private List<String> readRecord() throws IOException {
+        line = nextLine;
+        List<String> fields = new ArrayList<>();
+        StringBuilder cur = new StringBuilder();
+        boolean quoted = false;
+        int length = 0;
+        int c = in.read();
+        if (c < 0) return null;
+        while (c >= 0) {
+            if (++length > MAX_RECORD_CHARS) {
+                // Most likely an unbalanced quote; the rest of the file cannot be split reliably
+                throw new IOException("Line " + line + ": record longer than " + MAX_RECORD_CHARS + " characters");
+            }
+            char ch = (char) c;
+            if (quoted) {
+                if (ch == '"') {
+                    in.mark(1);
+                    int n = in.read();
+                    if (n == '"') {
+                        cur.append('"');
+                    } else {
+                        quoted = false;
+                        if (n >= 0) in.reset();
+                    }
+                } else {
+                    if (ch == '\n') nextLine++;
+                    cur.append(ch);
+                }
+            } else if (ch == '"' && cur.isEmpty()) {
+                quoted = true;
+            } else if (ch == delimiter) {
+                fields.add(cur.toString());
+                cur.setLength(0);
+            } else if (ch == '\n' || ch == '\r') {
+                if (ch == '\r') {
+                    in.mark(1);
+                    if (in.read() != '\n') in.reset();
+                }
+                nextLine++;
+                break;
+            } else {
+                cur.append(ch);
+            }
+            c = in.read();
+        }
+        fields.add(cur.toString());
+        return fields;
+    }
+}
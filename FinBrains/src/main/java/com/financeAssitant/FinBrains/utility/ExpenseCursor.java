@@ -0,0 +1,39 @@
+package com.financeAssitant.FinBrains.utility;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Base64;
+
+// Opaque keyset position for newest-first expense listings: (date, _id) of the last row returned.
+// date is null once the listing has reached the undated rows, which sort after every dated one.
+public record ExpenseCursor(LocalDateTime date, String id) {
+
+    private static final String NO_DATE = "n";
+
+    public String encode() {
+        String position = date != null
+                ? String.valueOf(date.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli())
+                : NO_DATE;
+        String raw = position + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Blank cursor means "first page"
+    public static ExpenseCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) return null;
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int sep = raw.indexOf(':');
+            String position = raw.substring(0, sep);
+            LocalDateTime date = NO_DATE.equals(position) ? null
+                    : LocalDateTime.ofInstant(Instant.ofEpochMilli(Long.parseLong(position)), ZoneId.systemDefault());
+            String id = raw.substring(sep + 1);
+            if (id.isBlank()) throw new IllegalArgumentException("Invalid cursor");
+            return new ExpenseCursor(date, id);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
@@ -1,40 +1,58 @@
 package com.financeAssitant.FinBrains.utility;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
 import java.util.Date;
+import java.util.concurrent.TimeUnit;
 
 @Component
-public class JwtUtils {
+public class JwtUtils implements MeterBinder {
 
-    @Value("${app.jwt.secret:mySecretKey123456789012345678901234567890}")
-    private String jwtSecret;
+    private static final Logger log = LoggerFactory.getLogger(JwtUtils.class);
+    // Upper bound on how long a verified token is remembered, whatever its own expiry
+    private static final long MAX_CACHE_MILLIS = TimeUnit.MINUTES.toMillis(10);
 
-    @Value("${app.jwt.expiration:86400000}") // 24 hours
-    private int jwtExpiration;
+    private final int jwtExpiration;
+    private final long rememberExpiration;
 
-    @Value("${app.jwt.rememberExpiration:1209600000}") // 14 days
-    private long rememberExpiration;
+    // Key derivation and parser setup happen once, not per request
+    private final SecretKey signingKey;
+    private final JwtParser parser;
+    // Verified token -> claims; null when disabled
+    private final Cache<String, Claims> verified;
 
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(jwtSecret.getBytes());
+    public JwtUtils(@Value("${app.jwt.secret:mySecretKey123456789012345678901234567890}") String jwtSecret,
+                    @Value("${app.jwt.expiration:86400000}") int jwtExpiration, // 24 hours
+                    @Value("${app.jwt.rememberExpiration:1209600000}") long rememberExpiration, // 14 days
+                    @Value("${app.jwt.cache.enabled:true}") boolean cacheEnabled,
+                    @Value("${app.jwt.cache.max-size:10000}") long cacheMaxSize) {
+        this.jwtExpiration = jwtExpiration;
+        this.rememberExpiration = rememberExpiration;
+        this.signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parser().verifyWith(signingKey).build();
+        this.verified = cacheEnabled
+                ? Caffeine.newBuilder().maximumSize(cacheMaxSize).expireAfter(new UntilTokenExpiry()).recordStats().build()
+                : null;
     }
 
-    // For JJWT 0.12+ (newer versions)
     public String generateJwtToken(String userId, String email) {
-        return Jwts.builder()
-                .subject(userId)
-                .claim("email", email)
-                .issuedAt(new Date())
-                .expiration(new Date(System.currentTimeMillis() + jwtExpiration))
-                .signWith(getSigningKey(), Jwts.SIG.HS256)  // Changed from HS512 to HS256
-                .compact();
+        return generateJwtToken(userId, email, false);
     }
 
     public String generateJwtToken(String userId, String email, boolean rememberMe) {
@@ -44,38 +62,61 @@ public class JwtUtils {
                 .claim("email", email)
                 .issuedAt(new Date())
                 .expiration(new Date(System.currentTimeMillis() + exp))
-                .signWith(getSigningKey(), Jwts.SIG.HS256)
+                .signWith(signingKey, Jwts.SIG.HS256)
                 .compact();
     }
 
+    // Verifies signature and expiry once and returns every claim; throws JwtException/IllegalArgumentException if invalid
+    public Claims parseClaims(String token) {
+        if (verified == null) return parser.parseSignedClaims(token).getPayload();
+        Claims cached = verified.getIfPresent(token);
+        if (cached != null) return cached;
+        Claims claims = parser.parseSignedClaims(token).getPayload();
+        verified.put(token, claims);
+        return claims;
+    }
+
     public String getUserIdFromJwtToken(String token) {
-        return Jwts.parser()  // Use parser() instead of parserBuilder()
-                .verifyWith(getSigningKey())  // Updated method
-                .build()
-                .parseSignedClaims(token)  // Updated method name
-                .getPayload()
-                .getSubject();
+        return parseClaims(token).getSubject();
     }
 
     public String getEmailFromJwtToken(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload()
-                .get("email", String.class);
+        return parseClaims(token).get("email", String.class);
     }
 
     public boolean validateJwtToken(String authToken) {
         try {
-            Jwts.parser()
-                    .verifyWith(getSigningKey())
-                    .build()
-                    .parseSignedClaims(authToken);
+            parseClaims(authToken);
             return true;
         } catch (JwtException | IllegalArgumentException e) {
-            System.err.println("JWT validation error: " + e.getMessage());
+            log.debug("JWT validation error: {}", e.getMessage());
         }
         return false;
     }
-}
\ No newline at end of file
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (verified != null) CaffeineCacheMetrics.monitor(registry, verified, "jwt-claims");
+    }
+
+    // Cached entries never outlive the token they stand for
+    private static class UntilTokenExpiry implements Expiry<String, Claims> {
+        @Override
+        public long expireAfterCreate(String token, Claims claims, long currentTime) {
+            long remaining = claims.getExpiration() != null
+                    ? claims.getExpiration().getTime() - System.currentTimeMillis()
+                    : MAX_CACHE_MILLIS;
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, Math.min(remaining, MAX_CACHE_MILLIS)));
+        }
+
+        @Override
+        public long expireAfterUpdate(String token, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        @Override
+        public long expireAfterRead(String token, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.financeAssitant.FinBrains.utility;
+
+import com.financeAssitant.FinBrains.entity.Expense;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+// OFX 1.x (SGML, unclosed value tags) and 2.x (XML) bank/credit-card statements. Only <STMTTRN> blocks are read:
+// DTPOSTED, TRNAMT (signed), FITID, NAME, MEMO and TRNTYPE; everything else is skipped as it streams past.
+class OfxStatementReader implements StatementReader {
+
+    private static final int MAX_TEXT_CHARS = 4096;
+    private static final DateTimeFormatter DAY = DateTimeFormatter.ofPattern("yyyyMMdd");
+    private static final DateTimeFormatter SECOND = DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
+
+    private final BufferedReader in;
+    private long transaction;
+
+    OfxStatementReader(Reader reader) {
+        this.in = reader instanceof BufferedReader b ? b : new BufferedReader(reader);
+    }
+
+    @Override
+    public StatementRow next() throws IOException {
+        Map<String, String> fields = null;
+        String tag;
+        while ((tag = nextTag()) != null) {
+            if ("STMTTRN".equals(tag)) {
+                fields = new HashMap<>();
+                transaction++;
+            } else if ("/STMTTRN".equals(tag)) {
+                if (fields != null) return toRow(fields);
+            } else if (fields != null && !tag.startsWith("/")) {
+                fields.put(tag, readText().trim());
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private StatementRow toRow(Map<String, String> f) {
+        String amountText = f.getOrDefault("TRNAMT", "");
+        double amount;
+        try {
+            amount = Double.parseDouble(amountText.replace(",", "."));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Transaction " + transaction + ": invalid TRNAMT '" + amountText + "'");
+        }
+        if (amount == 0) throw new IllegalArgumentException("Transaction " + transaction + ": amount is zero");
+
+        String name = f.get("NAME");
+        String memo = f.get("MEMO");
+        String description = name == null || name.isBlank() ? memo
+                : memo == null || memo.isBlank() || memo.equalsIgnoreCase(name) ? name : name + " - " + memo;
+        String fitId = f.get("FITID");
+        return new StatementRow(transaction, parseDate(f.getOrDefault("DTPOSTED", "")), Math.abs(amount),
+                amount < 0 ? Expense.ExpenseType.EXPENSE : Expense.ExpenseType.INCOME,
+                description == null || description.isBlank() ? null : description,
+                null,
+                paymentTypeOf(f.get("TRNTYPE")),
+                null,
+                fitId == null || fitId.isBlank() ? null : fitId);
+    }
+
+    // YYYYMMDD[HHMMSS[.XXX]][[gmt offset:tz name]]; the offset is ignored like every other server-local date
+    private LocalDateTime parseDate(String text) {
+        String digits = text.length() >= 14 && text.substring(0, 14).chars().allMatch(Character::isDigit)
+                ? text.substring(0, 14) : text.length() >= 8 ? text.substring(0, 8) : text;
+        try {
+            return digits.length() == 14 ? LocalDateTime.parse(digits, SECOND) : LocalDate.parse(digits, DAY).atStartOfDay();
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Transaction " + transaction + ": invalid DTPOSTED '" + text + "'");
+        }
+    }
+
+    private static String paymentTypeOf(String trnType) {
+        if (trnType == null) return null;
+        return switch (trnType.trim().toUpperCase(Locale.ROOT)) {
+            case "ATM", "CASH" -> "cash";
+            case "POS", "DEBIT", "CREDIT", "PAYMENT" -> "card";
+            default -> null;
+        };
+    }
+
+    // Name of the next tag (upper case, "/NAME" for closing tags), or null at end of input
+    private String nextTag() throws IOException {
+        int c;
+        while ((c = in.read()) >= 0 && c != '<') {
+            // skip headers, whitespace and text outside transactions
+        }
+        if (c < 0) return null;
+        StringBuilder name = new StringBuilder();
+        while ((c = in.read()) >= 0 && c != '>') {
+            if (name.length() < 64) name.append((char) c);
+        }
+        return name.toString().trim().toUpperCase(Locale.ROOT);
+    }
+
+    // Element text up to the next tag, which is left unread
+    private String readText() throws IOException {
+        StringBuilder text = new StringBuilder();
+        in.mark(1);
+        int c;
+        while ((c = in.read()) >= 0 && c != '<') {
+            if (text.length() < MAX_TEXT_CHARS) text.append((char) c);
+            in.mark(1);
+        }
+        if (c == '<') in.reset();
+        return text.toString()
+                .replace("&lt;", "<").replace("&gt;", ">").replace("&quot;", "\"").replace("&apos;", "'")
+                .replace("&amp;", "&");
+    }
+}
@@ -0,0 +1,190 @@
+package com.financeAssitant.FinBrains.utility;
+
+import com.financeAssitant.FinBrains.entity.Expense;
+
+import java.time.DateTimeException;
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.List;
+
+// Single source of truth for recurring dates. Occurrences are counted from the anchor (first occurrence)
+// in the user's zone, so the next one is computed directly instead of stepping period by period.
+// Inputs and outputs are server-local LocalDateTimes, like every other date in the expenses collection.
+public final class RecurrenceSchedule {
+
+    private static final ZoneId SERVER_ZONE = ZoneId.systemDefault();
+
+    private final boolean monthly; // step unit: months, otherwise days
+    private final int step;
+    private final Integer weekOfMonth; // 1..5, or -1 for the last one
+    private final DayOfWeek dayOfWeek;
+    private final LocalDateTime anchor; // wall-clock time in zone
+    private final LocalDateTime endAt; // server-local, inclusive
+    private final ZoneId zone;
+
+    private RecurrenceSchedule(boolean monthly, int step, Integer weekOfMonth, DayOfWeek dayOfWeek,
+                               LocalDateTime anchor, LocalDateTime endAt, ZoneId zone) {
+        this.monthly = monthly;
+        this.step = step;
+        this.weekOfMonth = weekOfMonth;
+        this.dayOfWeek = dayOfWeek;
+        this.anchor = anchor;
+        this.endAt = endAt;
+        this.zone = zone;
+    }
+
+    public static String normalizeFrequency(String freq) {
+        if (freq == null) return null;
+        String f = freq.trim().toUpperCase();
+        return switch (f) {
+            case "DAILY", "DAY" -> "DAILY";
+            case "WEEKLY", "WEEK" -> "WEEKLY";
+            case "MONTHLY", "MONTH" -> "MONTHLY";
+            case "QUARTERLY", "QUARTER" -> "QUARTERLY";
+            case "YEARLY", "YEAR" -> "YEARLY";
+            case "CUSTOM" -> "CUSTOM";
+            default -> f;
+        };
+    }
+
+    // Schedule of a recurring expense. The anchor is its startDate (start of day in its zone), or
+    // fallbackStart (server-local) when no startDate is set.
+    public static RecurrenceSchedule of(Expense.Recurring r, LocalDateTime fallbackStart) {
+        ZoneId zone = zoneOf(r.getTimezone());
+        int interval = r.getInterval() != null ? r.getInterval() : 1;
+        if (interval < 1) throw new IllegalArgumentException("Recurring interval must be at least 1");
+        DayOfWeek dow = null;
+        if (r.getDayOfWeek() != null) {
+            try {
+                dow = DayOfWeek.valueOf(r.getDayOfWeek().trim().toUpperCase());
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Invalid recurring dayOfWeek: " + r.getDayOfWeek());
+            }
+        }
+        Integer nth = r.getWeekOfMonth();
+        if ((nth == null) != (dow == null)) {
+            throw new IllegalArgumentException("weekOfMonth and dayOfWeek must be given together");
+        }
+        if (nth != null && (nth == 0 || nth < -1 || nth > 5)) {
+            throw new IllegalArgumentException("weekOfMonth must be 1-5, or -1 for the last week");
+        }
+
+        String f = normalizeFrequency(r.getFrequency());
+        boolean monthly;
+        int step;
+        if ("DAILY".equals(f)) { monthly = false; step = interval; }
+        else if ("WEEKLY".equals(f)) { monthly = false; step = 7 * interval; }
+        else if ("QUARTERLY".equals(f)) { monthly = true; step = 3 * interval; }
+        else if ("YEARLY".equals(f)) { monthly = true; step = 12 * interval; }
+        // CUSTOM: nth weekday every N months, or every N days; without either it stays monthly
+        else if ("CUSTOM".equals(f) && nth == null && r.getInterval() != null) { monthly = false; step = interval; }
+        else { monthly = true; step = interval; }
+        if (!monthly && nth != null) {
+            throw new IllegalArgumentException("weekOfMonth/dayOfWeek need a monthly-based frequency or CUSTOM");
+        }
+
+        LocalDateTime anchor = r.getStartDate() != null
+                ? r.getStartDate().atStartOfDay()
+                : toZone(fallbackStart != null ? fallbackStart : LocalDateTime.now(), zone);
+        LocalDateTime endAt = r.getEndDate() != null ? toServer(r.getEndDate().atStartOfDay(), zone) : null;
+        return new RecurrenceSchedule(monthly, step, nth, dow, anchor, endAt, zone);
+    }
+
+    // First occurrence at or after the given time; null once past endDate
+    public LocalDateTime nextOnOrAfter(LocalDateTime serverTime) {
+        return withinEnd(toServer(onOrAfterWall(toZone(serverTime, zone)), zone));
+    }
+
+    // Occurrence following one that fell at 'previous'. For month-based rules an occurrence in the same
+    // month as 'previous' is skipped, so templates whose old nextDue drifted (31st -> 28th) are not doubled.
+    public LocalDateTime nextAfter(LocalDateTime previous) {
+        LocalDateTime prevWall = toZone(previous, zone);
+        LocalDateTime next = onOrAfterWall(prevWall.plusNanos(1));
+        if (monthly && YearMonth.from(next).equals(YearMonth.from(prevWall))) {
+            next = onOrAfterWall(next.plusNanos(1));
+        }
+        return withinEnd(toServer(next, zone));
+    }
+
+    // Occurrences in [from, until], at most limit of them
+    public List<LocalDateTime> upcoming(LocalDateTime from, LocalDateTime until, int limit) {
+        List<LocalDateTime> out = new ArrayList<>();
+        LocalDateTime next = nextOnOrAfter(from);
+        while (next != null && !next.isAfter(until) && out.size() < limit) {
+            out.add(next);
+            next = nextAfter(next);
+        }
+        return out;
+    }
+
+    public LocalDateTime endAt() {
+        return endAt;
+    }
+
+    // Start of today in the schedule's zone, as server-local time
+    public LocalDateTime startOfToday() {
+        return toServer(LocalDateTime.now(zone).toLocalDate().atStartOfDay(), zone);
+    }
+
+    private LocalDateTime withinEnd(LocalDateTime t) {
+        return endAt != null && t.isAfter(endAt) ? null : t;
+    }
+
+    private LocalDateTime onOrAfterWall(LocalDateTime min) {
+        if (weekOfMonth != null) return nthWeekdayOnOrAfter(min);
+        if (!min.isAfter(anchor)) return anchor;
+        if (!monthly) {
+            long k = ChronoUnit.DAYS.between(anchor, min) / step;
+            LocalDateTime c = anchor.plusDays(k * step);
+            return c.isBefore(min) ? c.plusDays(step) : c;
+        }
+        // Always offset from the anchor so month-end clamping does not accumulate
+        long k = ChronoUnit.MONTHS.between(anchor, min) / step;
+        LocalDateTime c = anchor.plusMonths(k * step);
+        while (c.isBefore(min)) {
+            c = anchor.plusMonths(++k * step);
+        }
+        return c;
+    }
+
+    private LocalDateTime nthWeekdayOnOrAfter(LocalDateTime min) {
+        YearMonth first = YearMonth.from(anchor);
+        LocalDateTime floor = min.isAfter(anchor) ? min : anchor;
+        long k = Math.max(0, ChronoUnit.MONTHS.between(first, YearMonth.from(floor)) / step);
+        // A few iterations at most: the candidate month, the next one, or months without a 5th weekday
+        while (true) {
+            LocalDateTime c = nthWeekday(first.plusMonths(k * step));
+            if (c != null && !c.isBefore(floor)) return c;
+            k++;
+        }
+    }
+
+    private LocalDateTime nthWeekday(YearMonth ym) {
+        var date = weekOfMonth == -1
+                ? ym.atEndOfMonth().with(TemporalAdjusters.lastInMonth(dayOfWeek))
+                : ym.atDay(1).with(TemporalAdjusters.dayOfWeekInMonth(weekOfMonth, dayOfWeek));
+        return YearMonth.from(date).equals(ym) ? date.atTime(anchor.toLocalTime()) : null;
+    }
+
+    private static ZoneId zoneOf(String id) {
+        if (id == null || id.isBlank()) return SERVER_ZONE;
+        try {
+            return ZoneId.of(id);
+        } catch (DateTimeException e) {
+            return SERVER_ZONE;
+        }
+    }
+
+    private static LocalDateTime toZone(LocalDateTime serverTime, ZoneId zone) {
+        return serverTime.atZone(SERVER_ZONE).withZoneSameInstant(zone).toLocalDateTime();
+    }
+
+    private static LocalDateTime toServer(LocalDateTime wall, ZoneId zone) {
+        return wall.atZone(zone).withZoneSameInstant(SERVER_ZONE).toLocalDateTime();
+    }
+}
@@ -0,0 +1,49 @@
+package com.financeAssitant.FinBrains.utility;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+// Tokenizer behind expense search: whole words for ranking, word prefixes for indexed prefix matching
+public final class SearchKeys {
+
+    public static final int MIN_PREFIX = 2;
+    public static final int MAX_PREFIX = 20;
+
+    private SearchKeys() {
+    }
+
+    public static List<String> tokens(Collection<String> texts) {
+        Set<String> out = new LinkedHashSet<>();
+        for (String text : texts) {
+            if (text == null) continue;
+            for (String t : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+                if (!t.isEmpty()) out.add(t);
+            }
+        }
+        return new ArrayList<>(out);
+    }
+
+    // Every prefix of each token from MIN_PREFIX up to MAX_PREFIX characters
+    public static List<String> prefixes(Collection<String> tokens) {
+        Set<String> out = new LinkedHashSet<>();
+        for (String t : tokens) {
+            for (int len = MIN_PREFIX; len <= Math.min(t.length(), MAX_PREFIX); len++) {
+                out.add(t.substring(0, len));
+            }
+        }
+        return new ArrayList<>(out);
+    }
+
+    // Keys a search term must all match against stored prefixes; too-short tokens are dropped
+    public static List<String> queryKeys(String term) {
+        Set<String> out = new LinkedHashSet<>();
+        for (String t : tokens(List.of(term))) {
+            if (t.length() >= MIN_PREFIX) out.add(t.length() > MAX_PREFIX ? t.substring(0, MAX_PREFIX) : t);
+        }
+        return new ArrayList<>(out);
+    }
+}
@@ -0,0 +1,32 @@
+package com.financeAssitant.FinBrains.utility;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+
+// Pull parser over a statement: one row at a time, never the whole file in memory
+public interface StatementReader extends Closeable {
+
+    enum Format { CSV, OFX }
+
+    // Next row, or null at the end. A malformed row throws IllegalArgumentException and is skipped;
+    // reading can continue with the following row.
+    StatementRow next() throws IOException;
+
+    static StatementReader open(Reader reader, Format format, String dateFormat) throws IOException {
+        return format == Format.OFX ? new OfxStatementReader(reader) : new CsvStatementReader(reader, dateFormat);
+    }
+
+    // Explicit format wins; otherwise .ofx/.qfx file names are OFX and everything else CSV
+    static Format formatOf(String format, String fileName) {
+        if (format != null && !format.isBlank()) {
+            try {
+                return Format.valueOf(format.trim().toUpperCase());
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unsupported statement format: " + format + ". Expected CSV or OFX");
+            }
+        }
+        String name = fileName != null ? fileName.toLowerCase() : "";
+        return name.endsWith(".ofx") || name.endsWith(".qfx") ? Format.OFX : Format.CSV;
+    }
+}
@@ -0,0 +1,18 @@
+package com.financeAssitant.FinBrains.utility;
+
+import com.financeAssitant.FinBrains.entity.Expense;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// One transaction read from a bank statement; amount is always positive, the direction is in type
+public record StatementRow(long line,
+                           LocalDateTime date,
+                           double amount,
+                           Expense.ExpenseType type,
+                           String description,
+                           String category, // name, may be null
+                           String paymentType, // may be null
+                           List<String> tags,
+                           String externalId) { // bank transaction id (OFX FITID, CSV id column), may be null
+}
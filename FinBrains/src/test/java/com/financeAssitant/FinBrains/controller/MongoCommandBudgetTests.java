@@ -0,0 +1,138 @@
+package com.financeAssitant.FinBrains.controller;
+
+import com.financeAssitant.FinBrains.config.MongoCommandBudget;
+import com.financeAssitant.FinBrains.entity.Budget;
+import com.financeAssitant.FinBrains.entity.Category;
+import com.financeAssitant.FinBrains.entity.Expense;
+import com.financeAssitant.FinBrains.repository.BudgetRepository;
+import com.financeAssitant.FinBrains.repository.ExpenseRepository;
+import com.financeAssitant.FinBrains.service.ExpenseService;
+import com.financeAssitant.FinBrains.utility.JwtUtils;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Query budgets per endpoint: the Mongo commands each call issues must not grow with the data (N+1 regressions)
+@SpringBootTest
+@AutoConfigureMockMvc
+class MongoCommandBudgetTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtUtils jwtUtils;
+
+    @Autowired
+    private ExpenseService expenseService;
+
+    @Autowired
+    private ExpenseRepository expenseRepository;
+
+    @Autowired
+    private BudgetRepository budgetRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    private String userId;
+    private String token;
+
+    @BeforeEach
+    void seed() {
+        userId = "budget-" + new ObjectId();
+        token = jwtUtils.generateJwtToken(userId, userId + "@example.com");
+        YearMonth now = YearMonth.now();
+        List<Expense> expenses = new ArrayList<>();
+        for (int m = 0; m < 12; m++) {
+            budgetRepository.save(Budget.builder().userId(userId).month(now.minusMonths(m).toString()).amount(1000.0).build());
+            for (int i = 0; i < 5; i++) {
+                Expense e = new Expense(userId, 10.0 + i, "expense " + m + "-" + i);
+                e.setDate(now.minusMonths(m).atDay(1 + i).atStartOfDay());
+                expenses.add(e);
+            }
+        }
+        expenseRepository.saveAll(expenses);
+    }
+
+    @AfterEach
+    void cleanup() {
+        mongoTemplate.remove(Query.query(Criteria.where("userId").is(userId)), Expense.class);
+        mongoTemplate.remove(Query.query(Criteria.where("userId").is(userId)), Budget.class);
+        mongoTemplate.remove(Query.query(Criteria.where("userId").is(userId)), Category.class);
+    }
+
+    @Test
+    void budgetHistoryIsTwoCommandsForAYear() throws Exception {
+        YearMonth now = YearMonth.now();
+        MongoCommandBudget.Usage usage = call("/api/budget/history?from=" + now.minusMonths(11) + "&to=" + now);
+
+        assertEquals("BudgetController#history", usage.label());
+        assertEquals(List.of("find budgets", "aggregate expenses"), usage.commands());
+    }
+
+    @Test
+    void categoriesAreServedFromCacheAfterFirstCall() throws Exception {
+        call("/api/categories");
+        MongoCommandBudget.Usage usage = call("/api/categories");
+
+        assertEquals(0, usage.commandCount());
+    }
+
+    @Test
+    void streamedExportIsOneSample() throws Exception {
+        long before = samples("ExpenseController#exportExpenses");
+
+        MvcResult started = mockMvc.perform(get("/api/expenses/export").header("Authorization", "Bearer " + token))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(started)).andExpect(status().isOk());
+
+        // The ASYNC re-dispatch that writes the body must not add a second, near-empty sample
+        assertEquals(before + 1, samples("ExpenseController#exportExpenses"));
+    }
+
+    @Test
+    void measureCountsCommandsAndDocumentsOfAServiceCall() {
+        MongoCommandBudget.Usage usage = MongoCommandBudget.measure(() -> expenseService.getUserExpenses(userId));
+
+        assertEquals(List.of("find expenses"), usage.commands());
+        assertEquals(60, usage.documents());
+    }
+
+    private long samples(String handler) {
+        DistributionSummary summary = registry.find("finbrains.request.mongo.commands").tag("handler", handler).summary();
+        return summary != null ? summary.count() : 0;
+    }
+
+    private MongoCommandBudget.Usage call(String uri) throws Exception {
+        MvcResult result = mockMvc.perform(get(uri).header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andReturn();
+        return (MongoCommandBudget.Usage) result.getRequest().getAttribute(MongoCommandBudget.REQUEST_ATTRIBUTE);
+    }
+}
@@ -0,0 +1,47 @@
+package com.financeAssitant.FinBrains.controller;
+
+import com.financeAssitant.FinBrains.config.MongoConcurrencyLimiter;
+import com.financeAssitant.FinBrains.service.ExpenseService;
+import com.financeAssitant.FinBrains.utility.JwtUtils;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// A saturated database reaches clients as a retryable 503, not as the 400 handlers return for their own errors
+@SpringBootTest
+@AutoConfigureMockMvc
+class MongoSaturationTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtUtils jwtUtils;
+
+    @MockitoBean
+    private ExpenseService expenseService;
+
+    @Test
+    void expenseListingReturns503WithRetryAfter() throws Exception {
+        when(expenseService.getUserExpensesPaginated(anyString(), anyInt(), anyInt()))
+                .thenThrow(new MongoConcurrencyLimiter.MongoSaturatedException());
+
+        mockMvc.perform(get("/api/expenses")
+                        .header("Authorization", "Bearer " + jwtUtils.generateJwtToken("saturated-user", "saturated@example.com")))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"))
+                .andExpect(jsonPath("$.success").value(false));
+    }
+}
@@ -0,0 +1,121 @@
+package com.financeAssitant.FinBrains.repository;
+
+import com.financeAssitant.FinBrains.dto.ExpenseFilterRequest;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+// Runs every ExpenseRepository query shape and fails if MongoDB plans any of them as a collection scan
+@SpringBootTest
+class ExpenseRepositoryIndexTests {
+
+    private static final Set<String> QUERY_COMMANDS = Set.of("find", "count", "aggregate", "delete");
+
+    @TestConfiguration
+    static class CaptureConfig {
+        @Bean
+        CommandCapture commandCapture() {
+            return new CommandCapture();
+        }
+
+        @Bean
+        MongoClientSettingsBuilderCustomizer captureCommands(CommandCapture capture) {
+            return builder -> builder.addCommandListener(capture);
+        }
+    }
+
+    static class CommandCapture implements CommandListener {
+        final List<BsonDocument> commands = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void commandStarted(CommandStartedEvent event) {
+            if (QUERY_COMMANDS.contains(event.getCommandName())
+                    && "expenses".equals(event.getCommand().get(event.getCommandName()).asString().getValue())) {
+                commands.add(event.getCommand().clone());
+            }
+        }
+    }
+
+    @Autowired
+    private ExpenseRepository expenseRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private CommandCapture capture;
+
+    @Test
+    void noExpenseQueryFallsBackToCollectionScan() {
+        String userId = "index-check-" + new ObjectId();
+        String categoryId = new ObjectId().toHexString();
+        LocalDateTime to = LocalDateTime.now();
+        LocalDateTime from = to.minusMonths(1);
+        Pageable page = PageRequest.of(0, 20, Sort.by(Sort.Direction.DESC, "date"));
+
+        capture.commands.clear();
+        expenseRepository.findByUserIdOrderByDateDesc(userId);
+        expenseRepository.findByUserIdOrderByDateDesc(userId, page);
+        expenseRepository.findByIdAndUserId(new ObjectId().toHexString(), userId);
+        expenseRepository.findByUserIdAndDateBetweenOrderByDateDesc(userId, from, to);
+        expenseRepository.findByUserIdAndDateBetweenOrderByDateDesc(userId, from, to, page);
+        expenseRepository.findByUserIdAndCategory_IdOrderByDateDesc(userId, categoryId);
+        expenseRepository.findByUserIdAndCategory_IdOrderByDateDesc(userId, categoryId, page);
+        expenseRepository.findByUserIdAndCategory_Id(userId, categoryId);
+        expenseRepository.findByUserIdAndAmountBetweenOrderByDateDesc(userId, 1.0, 100.0);
+        expenseRepository.findByUserIdAndPaymentMethod_TypeOrderByDateDesc(userId, "card");
+        expenseRepository.findByUserIdAndSearchPrefixesAll(userId, List.of("cof"));
+        expenseRepository.findByFilters(userId, ExpenseFilterRequest.builder()
+                .startDate(from).endDate(to).categoryId(categoryId).paymentType("card")
+                .minAmount(1.0).maxAmount(100.0).searchTerm("coffee").tags(List.of("food"))
+                .build(), page);
+        expenseRepository.findByFilters(userId, ExpenseFilterRequest.builder()
+                .searchTerm("cof sho").sortBy("relevance").build(), page);
+        expenseRepository.findPageAfter(userId, null, to, new ObjectId().toHexString(), 21);
+        expenseRepository.countByFilters(userId, null);
+        expenseRepository.findExpenseSummaryByUserIdAndDateRange(userId, from, to);
+        expenseRepository.findByUserIdAndCurrentMonth(userId, from, to);
+        expenseRepository.countByUserIdAndCategory_Id(userId, categoryId);
+        expenseRepository.deleteByUserIdAndDateBefore(userId, from.minusYears(50));
+        expenseRepository.deleteByUserIdAndCategory_IdAndDateBetween(userId, categoryId, from, to);
+        expenseRepository.findByUserIdAndRecurring_IsRecurringTrue(userId);
+        expenseRepository.findByRecurring_IsRecurringTrueAndRecurring_NextDueLessThanEqual(from.minusYears(50));
+        expenseRepository.findDueTemplatesAfter(from.minusYears(50), from.minusYears(51), new ObjectId().toHexString(), 1000);
+        expenseRepository.sumExpenseAmountByMonth(userId, from, to);
+        expenseRepository.sumByMonthTypeAndCategory(userId, from, to);
+
+        for (BsonDocument command : capture.commands) {
+            String plan = explain(command).toJson();
+            assertFalse(plan.contains("COLLSCAN"), () -> "Collection scan for " + command.toJson() + "\n" + plan);
+        }
+    }
+
+    private Document explain(BsonDocument command) {
+        BsonDocument inner = new BsonDocument();
+        command.forEach((key, value) -> {
+            if (!key.startsWith("$") && !key.equals("lsid") && !key.equals("txnNumber")) inner.put(key, value);
+        });
+        return mongoTemplate.getDb().runCommand(new BsonDocument("explain", inner)
+                .append("verbosity", new BsonString("queryPlanner")));
+    }
+}
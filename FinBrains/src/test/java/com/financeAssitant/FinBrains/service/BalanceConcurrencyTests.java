@@ -0,0 +1,88 @@
+package com.financeAssitant.FinBrains.service;
+
+import com.financeAssitant.FinBrains.entity.Expense;
+import com.financeAssitant.FinBrains.entity.PendingTotals;
+import com.financeAssitant.FinBrains.entity.UserBalance;
+import com.financeAssitant.FinBrains.repository.ExpenseRepository;
+import com.financeAssitant.FinBrains.repository.UserBalanceRepository;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+// Ledger builds and reconciles interleaved between an expense insert and its $inc: the expense must be counted once
+@SpringBootTest
+class BalanceConcurrencyTests {
+
+    @Autowired
+    private BalanceService balanceService;
+
+    @Autowired
+    private UserBalanceRepository balanceRepository;
+
+    @Autowired
+    private ExpenseRepository expenseRepository;
+
+    @Autowired
+    private TotalsJournal totalsJournal;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    private String userId;
+
+    @BeforeEach
+    void setUp() {
+        userId = "balance-race-" + new ObjectId();
+    }
+
+    @AfterEach
+    void cleanup() {
+        mongoTemplate.remove(Query.query(Criteria.where("userId").is(userId)), Expense.class);
+        mongoTemplate.remove(Query.query(Criteria.where("_id").is(userId)), UserBalance.class);
+        mongoTemplate.remove(Query.query(Criteria.where("userId").is(userId)), PendingTotals.class);
+    }
+
+    @Test
+    void firstReadBetweenInsertAndApplyIsNotStored() {
+        Expense e = new Expense(userId, 25.0, "interleaved");
+
+        totalsJournal.write(List.of(e), () -> {
+            expenseRepository.save(e);
+            assertEquals(-25.0, balanceService.getBalance(userId));
+            assertNull(balanceRepository.findById(userId).orElse(null));
+            balanceService.apply(e, 1);
+            return null;
+        });
+
+        assertEquals(-25.0, balanceService.getBalance(userId));
+        assertEquals(-25.0, balanceRepository.findById(userId).orElseThrow().getBalance());
+    }
+
+    @Test
+    void reconcileBetweenInsertAndApplyLeavesTheLedgerAlone() {
+        expenseRepository.save(new Expense(userId, 10.0, "before"));
+        assertEquals(-10.0, balanceService.getBalance(userId));
+
+        Expense e = new Expense(userId, 25.0, "interleaved");
+        totalsJournal.write(List.of(e), () -> {
+            expenseRepository.save(e);
+            assertNull(balanceService.reconcile(userId).getRevision());
+            balanceService.apply(e, 1);
+            return null;
+        });
+
+        assertEquals(-35.0, balanceRepository.findById(userId).orElseThrow().getBalance());
+        assertEquals(-35.0, balanceService.reconcile(userId).getBalance());
+    }
+}
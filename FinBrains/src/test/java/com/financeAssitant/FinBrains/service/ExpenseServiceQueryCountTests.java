@@ -0,0 +1,139 @@
+package com.financeAssitant.FinBrains.service;
+
+import com.financeAssitant.FinBrains.config.MongoCommandBudget;
+import com.financeAssitant.FinBrains.dto.CreateExpenseRequest;
+import com.financeAssitant.FinBrains.dto.ExpenseBatchResponse;
+import com.financeAssitant.FinBrains.dto.ExpenseResponse;
+import com.financeAssitant.FinBrains.entity.Category;
+import com.financeAssitant.FinBrains.entity.Expense;
+import com.financeAssitant.FinBrains.repository.CategoryRepository;
+import com.financeAssitant.FinBrains.repository.ExpenseRepository;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Counts the Mongo commands issued while ExpenseService maps a list of expenses to responses and runs batch writes
+@SpringBootTest
+class ExpenseServiceQueryCountTests {
+
+    private static final Set<String> READ_COMMANDS = Set.of("find", "count", "aggregate");
+
+    @Autowired
+    private ExpenseService expenseService;
+
+    @Autowired
+    private ExpenseRepository expenseRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    private String userId;
+
+    @BeforeEach
+    void seed() {
+        userId = "query-count-" + new ObjectId();
+        Category food = categoryRepository.save(Category.builder().userId(userId).name("Food").build());
+        Category travel = categoryRepository.save(Category.builder().userId(userId).name("Travel").build());
+        List<Expense> expenses = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            Expense e = new Expense(userId, 10.0 + i, "expense " + i);
+            e.setDate(LocalDateTime.now().minusDays(i));
+            e.setCategory(i % 2 == 0 ? food : travel);
+            expenses.add(e);
+        }
+        expenseRepository.saveAll(expenses);
+    }
+
+    @AfterEach
+    void cleanup() {
+        mongoTemplate.remove(Query.query(Criteria.where("userId").is(userId)), Expense.class);
+        mongoTemplate.remove(Query.query(Criteria.where("userId").is(userId)), Category.class);
+    }
+
+    @Test
+    void listWithSnapshotsIsOneQuery() {
+        List<List<ExpenseResponse>> responses = new ArrayList<>();
+        MongoCommandBudget.Usage usage = MongoCommandBudget.measure(() -> responses.add(expenseService.getUserExpenses(userId)));
+
+        assertEquals(20, responses.get(0).size());
+        assertEquals(List.of("find expenses"), reads(usage));
+        assertEquals("Food", responses.get(0).get(0).getCategory().getName());
+    }
+
+    @Test
+    void listWithoutSnapshotsLoadsCategoriesOnce() {
+        // Documents written before snapshots existed only carry the DBRef
+        mongoTemplate.updateMulti(Query.query(Criteria.where("userId").is(userId)),
+                new Update().unset("categoryRef"), Expense.class);
+
+        List<List<ExpenseResponse>> responses = new ArrayList<>();
+        MongoCommandBudget.Usage usage = MongoCommandBudget.measure(() -> responses.add(expenseService.getUserExpenses(userId)));
+
+        assertEquals(20, responses.get(0).size());
+        assertEquals(List.of("find expenses", "find categories"), reads(usage));
+        assertEquals("Food", responses.get(0).get(0).getCategory().getName());
+        assertEquals("Travel", responses.get(0).get(1).getCategory().getName());
+    }
+
+    @Test
+    void batchCreateIsOneInsertWithPerItemResults() {
+        String foodId = categoryRepository.findByUserIdOrderByNameAsc(userId).get(0).getId();
+        List<CreateExpenseRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            requests.add(CreateExpenseRequest.builder()
+                    .amount(5.0 + i)
+                    .description("batch " + i)
+                    .categoryId(i == 7 ? "missing-category" : foodId)
+                    .build());
+        }
+
+        List<ExpenseBatchResponse> results = new ArrayList<>();
+        MongoCommandBudget.Usage usage = MongoCommandBudget.measure(() -> results.add(expenseService.createExpenses(userId, requests)));
+        ExpenseBatchResponse result = results.get(0);
+
+        assertEquals(49, result.getSucceeded());
+        assertEquals("Invalid category ID", result.getResults().get(7).getMessage());
+        assertEquals("Food", result.getResults().get(0).getData().getCategory().getName());
+        assertEquals(1, usage.commands().stream().filter(c -> c.equals("insert expenses")).count());
+        assertEquals(70, expenseRepository.findByUserIdOrderByDateDesc(userId).size());
+    }
+
+    @Test
+    void batchDeleteReadsOnceAndDeletesOnce() {
+        List<String> ids = new ArrayList<>(expenseRepository.findByUserIdOrderByDateDesc(userId).stream()
+                .limit(5).map(Expense::getId).toList());
+        ids.add("not-an-expense");
+
+        List<ExpenseBatchResponse> results = new ArrayList<>();
+        MongoCommandBudget.Usage usage = MongoCommandBudget.measure(() -> results.add(expenseService.deleteExpenses(userId, ids)));
+        ExpenseBatchResponse result = results.get(0);
+
+        assertEquals(5, result.getSucceeded());
+        assertEquals(1, result.getFailed());
+        assertEquals(List.of("find expenses"), reads(usage));
+        assertEquals(1, usage.commands().stream().filter(c -> c.equals("delete expenses")).count());
+        assertEquals(15, expenseRepository.findByUserIdOrderByDateDesc(userId).size());
+    }
+
+    // "find expenses", "aggregate expenses", ... without the writes (balance and rollup upserts vary with the flow)
+    private static List<String> reads(MongoCommandBudget.Usage usage) {
+        return usage.commands().stream().filter(c -> READ_COMMANDS.contains(c.substring(0, c.indexOf(' ')))).toList();
+    }
+}
@@ -0,0 +1,120 @@
+package com.financeAssitant.FinBrains.service;
+
+import com.financeAssitant.FinBrains.entity.Expense;
+import com.financeAssitant.FinBrains.entity.MonthlyRollup;
+import com.financeAssitant.FinBrains.entity.PendingTotals;
+import com.financeAssitant.FinBrains.repository.ExpenseRepository;
+import com.financeAssitant.FinBrains.repository.MonthlyRollupRepository;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Builds and rebuilds interleaved between an expense insert and its $inc: the expense must be counted once
+@SpringBootTest
+class MonthlyRollupConcurrencyTests {
+
+    @Autowired
+    private MonthlyRollupService monthlyRollupService;
+
+    @Autowired
+    private MonthlyRollupRepository rollupRepository;
+
+    @Autowired
+    private ExpenseRepository expenseRepository;
+
+    @Autowired
+    private TotalsJournal totalsJournal;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    private String userId;
+    private YearMonth month;
+
+    @BeforeEach
+    void setUp() {
+        userId = "rollup-race-" + new ObjectId();
+        month = YearMonth.now();
+    }
+
+    @AfterEach
+    void cleanup() {
+        mongoTemplate.remove(Query.query(Criteria.where("userId").is(userId)), Expense.class);
+        mongoTemplate.remove(Query.query(Criteria.where("userId").is(userId)), MonthlyRollup.class);
+        mongoTemplate.remove(Query.query(Criteria.where("userId").is(userId)), PendingTotals.class);
+    }
+
+    @Test
+    void firstReadBetweenInsertAndRecordIsNotStored() {
+        Expense e = expense(25.0);
+
+        totalsJournal.write(List.of(e), () -> {
+            expenseRepository.save(e);
+            // The month is built while the insert is committed but its $inc has not run yet
+            MonthlyRollup served = monthlyRollupService.get(userId, month);
+            assertEquals(25.0, served.getSpent());
+            assertNull(served.getRevision());
+            monthlyRollupService.record(e, 1);
+            return null;
+        });
+
+        assertEquals(25.0, monthlyRollupService.get(userId, month).getSpent());
+        assertEquals(25.0, rollupRepository.findById(MonthlyRollup.idOf(userId, month)).orElseThrow().getSpent());
+    }
+
+    @Test
+    void rebuildBetweenInsertAndRecordLeavesTheMonthAlone() {
+        expenseRepository.save(expense(10.0));
+        assertEquals(10.0, monthlyRollupService.get(userId, month).getSpent());
+
+        Expense e = expense(25.0);
+        totalsJournal.write(List.of(e), () -> {
+            expenseRepository.save(e);
+            assertFalse(monthlyRollupService.rebuild(userId));
+            monthlyRollupService.record(e, 1);
+            return null;
+        });
+
+        assertEquals(35.0, rollupRepository.findById(MonthlyRollup.idOf(userId, month)).orElseThrow().getSpent());
+        assertTrue(monthlyRollupService.rebuild(userId));
+        assertEquals(35.0, rollupRepository.findById(MonthlyRollup.idOf(userId, month)).orElseThrow().getSpent());
+    }
+
+    @Test
+    void failedWriteIsNoLongerInFlight() {
+        Expense e = expense(25.0);
+        try {
+            totalsJournal.write(List.of(e), () -> {
+                expenseRepository.save(e);
+                throw new IllegalStateException("crashed before the $inc");
+            });
+        } catch (IllegalStateException expected) {
+            // the entry is left for TotalsRepairSweeper
+        }
+
+        assertFalse(totalsJournal.inFlight(userId, month));
+        assertTrue(monthlyRollupService.rebuild(userId));
+        assertEquals(25.0, rollupRepository.findById(MonthlyRollup.idOf(userId, month)).orElseThrow().getSpent());
+    }
+
+    private Expense expense(double amount) {
+        Expense e = new Expense(userId, amount, "interleaved");
+        e.setDate(LocalDateTime.now().withDayOfMonth(1).withHour(12));
+        return e;
+    }
+}
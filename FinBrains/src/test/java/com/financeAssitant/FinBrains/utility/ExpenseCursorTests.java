@@ -0,0 +1,31 @@
+package com.financeAssitant.FinBrains.utility;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ExpenseCursorTests {
+
+    @Test
+    void datedPositionSurvivesTheRoundTrip() {
+        ExpenseCursor cursor = new ExpenseCursor(LocalDateTime.of(2024, 3, 10, 9, 30, 15), "65f0c0ffee");
+        assertEquals(cursor, ExpenseCursor.decode(cursor.encode()));
+    }
+
+    @Test
+    void undatedPositionKeepsPagingAmongUndatedRows() {
+        ExpenseCursor decoded = ExpenseCursor.decode(new ExpenseCursor(null, "65f0c0ffee").encode());
+        assertNull(decoded.date());
+        assertEquals("65f0c0ffee", decoded.id());
+    }
+
+    @Test
+    void blankIsTheFirstPageAndGarbageIsRejected() {
+        assertNull(ExpenseCursor.decode(" "));
+        assertThrows(IllegalArgumentException.class, () -> ExpenseCursor.decode("not-a-cursor"));
+    }
+}
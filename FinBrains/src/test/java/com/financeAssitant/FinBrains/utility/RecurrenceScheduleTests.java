@@ -0,0 +1,120 @@
+package com.financeAssitant.FinBrains.utility;
+
+import com.financeAssitant.FinBrains.entity.Expense;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class RecurrenceScheduleTests {
+
+    private static final String SERVER = ZoneId.systemDefault().getId();
+
+    private static Expense.Recurring rule(String frequency, LocalDate start) {
+        return Expense.Recurring.builder()
+                .isRecurring(true)
+                .frequency(frequency)
+                .startDate(start)
+                .timezone(SERVER)
+                .build();
+    }
+
+    @Test
+    void dailyJumpsStraightToTheNextOccurrence() {
+        RecurrenceSchedule s = RecurrenceSchedule.of(rule("DAILY", LocalDate.of(2015, 1, 1)), null);
+        assertEquals(LocalDateTime.of(2024, 3, 11, 0, 0), s.nextOnOrAfter(LocalDateTime.of(2024, 3, 10, 9, 30)));
+        assertEquals(LocalDateTime.of(2024, 3, 10, 0, 0), s.nextOnOrAfter(LocalDateTime.of(2024, 3, 10, 0, 0)));
+    }
+
+    @Test
+    void beforeTheStartTheFirstOccurrenceIsTheStart() {
+        RecurrenceSchedule s = RecurrenceSchedule.of(rule("WEEKLY", LocalDate.of(2024, 5, 1)), null);
+        assertEquals(LocalDateTime.of(2024, 5, 1, 0, 0), s.nextOnOrAfter(LocalDateTime.of(2024, 1, 1, 0, 0)));
+    }
+
+    @Test
+    void monthlyKeepsTheAnchorDayAcrossShortMonths() {
+        RecurrenceSchedule s = RecurrenceSchedule.of(rule("MONTHLY", LocalDate.of(2024, 1, 31)), null);
+        List<LocalDateTime> next = s.upcoming(LocalDateTime.of(2024, 1, 1, 0, 0), LocalDateTime.of(2024, 4, 30, 0, 0), 10);
+        assertEquals(List.of(
+                LocalDateTime.of(2024, 1, 31, 0, 0),
+                LocalDateTime.of(2024, 2, 29, 0, 0),
+                LocalDateTime.of(2024, 3, 31, 0, 0),
+                LocalDateTime.of(2024, 4, 30, 0, 0)), next);
+    }
+
+    @Test
+    void driftedMonthlyDueDateDoesNotRepeatTheMonth() {
+        RecurrenceSchedule s = RecurrenceSchedule.of(rule("MONTHLY", LocalDate.of(2024, 1, 31)), null);
+        assertEquals(LocalDateTime.of(2024, 4, 30, 0, 0), s.nextAfter(LocalDateTime.of(2024, 3, 28, 0, 0)));
+    }
+
+    @Test
+    void customEveryNDays() {
+        Expense.Recurring r = rule("CUSTOM", LocalDate.of(2024, 1, 1));
+        r.setInterval(3);
+        RecurrenceSchedule s = RecurrenceSchedule.of(r, null);
+        assertEquals(LocalDateTime.of(2024, 1, 13, 0, 0), s.nextOnOrAfter(LocalDateTime.of(2024, 1, 11, 12, 0)));
+    }
+
+    @Test
+    void customNthAndLastWeekday() {
+        Expense.Recurring second = rule("CUSTOM", LocalDate.of(2024, 1, 1));
+        second.setWeekOfMonth(2);
+        second.setDayOfWeek("TUESDAY");
+        RecurrenceSchedule s = RecurrenceSchedule.of(second, null);
+        assertEquals(LocalDateTime.of(2024, 1, 9, 0, 0), s.nextOnOrAfter(LocalDateTime.of(2024, 1, 1, 0, 0)));
+        assertEquals(LocalDateTime.of(2024, 2, 13, 0, 0), s.nextAfter(LocalDateTime.of(2024, 1, 9, 0, 0)));
+
+        Expense.Recurring last = rule("CUSTOM", LocalDate.of(2024, 1, 1));
+        last.setWeekOfMonth(-1);
+        last.setDayOfWeek("friday");
+        last.setInterval(2);
+        RecurrenceSchedule everyOtherMonth = RecurrenceSchedule.of(last, null);
+        assertEquals(LocalDateTime.of(2024, 3, 29, 0, 0), everyOtherMonth.nextOnOrAfter(LocalDateTime.of(2024, 1, 27, 0, 0)));
+    }
+
+    @Test
+    void fifthWeekdaySkipsMonthsWithoutOne() {
+        Expense.Recurring r = rule("MONTHLY", LocalDate.of(2024, 2, 1));
+        r.setWeekOfMonth(5);
+        r.setDayOfWeek("MONDAY");
+        // February 2024 has four Mondays; April 2024 has five
+        assertEquals(LocalDateTime.of(2024, 4, 29, 0, 0),
+                RecurrenceSchedule.of(r, null).nextOnOrAfter(LocalDateTime.of(2024, 2, 1, 0, 0)));
+    }
+
+    @Test
+    void stopsAfterEndDate() {
+        Expense.Recurring r = rule("MONTHLY", LocalDate.of(2024, 1, 15));
+        r.setEndDate(LocalDate.of(2024, 3, 1));
+        RecurrenceSchedule s = RecurrenceSchedule.of(r, null);
+        assertEquals(LocalDateTime.of(2024, 2, 15, 0, 0), s.nextAfter(LocalDateTime.of(2024, 1, 15, 0, 0)));
+        assertNull(s.nextAfter(LocalDateTime.of(2024, 2, 15, 0, 0)));
+    }
+
+    @Test
+    void occurrencesFollowTheUsersZone() {
+        Expense.Recurring r = rule("DAILY", LocalDate.of(2024, 1, 1));
+        r.setTimezone("Pacific/Auckland");
+        LocalDateTime midnightInAuckland = LocalDateTime.of(2024, 1, 2, 0, 0)
+                .atZone(ZoneId.of("Pacific/Auckland"))
+                .withZoneSameInstant(ZoneId.systemDefault())
+                .toLocalDateTime();
+        RecurrenceSchedule s = RecurrenceSchedule.of(r, null);
+        assertEquals(midnightInAuckland, s.nextOnOrAfter(midnightInAuckland.minusHours(1)));
+    }
+
+    @Test
+    void rejectsHalfSpecifiedWeekdayRule() {
+        Expense.Recurring r = rule("CUSTOM", LocalDate.of(2024, 1, 1));
+        r.setWeekOfMonth(2);
+        assertThrows(IllegalArgumentException.class, () -> RecurrenceSchedule.of(r, null));
+    }
+}
@@ -0,0 +1,120 @@
+package com.financeAssitant.FinBrains.utility;
+
+import com.financeAssitant.FinBrains.entity.Expense;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StatementReaderTests {
+
+    private static StatementReader csv(String text) throws IOException {
+        return StatementReader.open(new StringReader(text), StatementReader.Format.CSV, null);
+    }
+
+    @Test
+    void csvSignDecidesTheTypeAndQuotedFieldsKeepDelimiters() throws IOException {
+        try (StatementReader r = csv("Date,Description,Amount,Category\n"
+                + "2024-03-01,\"Coffee, large\",-4.50,Food\n"
+                + "01/03/2024,Salary,\"2,500.00\",\n")) {
+            StatementRow coffee = r.next();
+            assertEquals(LocalDateTime.of(2024, 3, 1, 0, 0), coffee.date());
+            assertEquals("Coffee, large", coffee.description());
+            assertEquals(4.5, coffee.amount());
+            assertEquals(Expense.ExpenseType.EXPENSE, coffee.type());
+            assertEquals("Food", coffee.category());
+
+            StatementRow salary = r.next();
+            assertEquals(2500.0, salary.amount());
+            assertEquals(Expense.ExpenseType.INCOME, salary.type());
+            assertNull(salary.category());
+            assertNull(r.next());
+        }
+    }
+
+    @Test
+    void csvDebitCreditColumnsAndSemicolonDelimiter() throws IOException {
+        try (StatementReader r = csv("Txn Date;Narration;Withdrawal;Deposit;Reference\n"
+                + "05.02.2024;Rent;1.200,00;;TX1\n"
+                + "06.02.2024;Refund;;15,25;TX2\n")) {
+            StatementRow rent = r.next();
+            assertEquals(1200.0, rent.amount());
+            assertEquals(Expense.ExpenseType.EXPENSE, rent.type());
+            assertEquals("TX1", rent.externalId());
+
+            StatementRow refund = r.next();
+            assertEquals(15.25, refund.amount());
+            assertEquals(Expense.ExpenseType.INCOME, refund.type());
+        }
+    }
+
+    @Test
+    void csvBadRowIsSkippedAndReadingContinues() throws IOException {
+        try (StatementReader r = csv("date,amount\nnot-a-date,-1\n2024-01-02,-3\n")) {
+            IllegalArgumentException e = assertThrows(IllegalArgumentException.class, r::next);
+            assertTrue(e.getMessage().startsWith("Line 2"), e.getMessage());
+            assertEquals(3.0, r.next().amount());
+        }
+    }
+
+    @Test
+    void csvWithoutAmountColumnIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> csv("date,description\n2024-01-01,x\n"));
+    }
+
+    @Test
+    void csvExportFormulaEscapeIsUndone() throws IOException {
+        try (StatementReader r = csv("date,type,amount,description\n"
+                + "2024-03-01T10:00:00,EXPENSE,5,'=SUM(A1)\n"
+                + "2024-03-01T10:00:00,EXPENSE,5,''quoted\n"
+                + "2024-03-01T10:00:00,EXPENSE,5,'plain\n")) {
+            assertEquals("=SUM(A1)", r.next().description());
+            assertEquals("'quoted", r.next().description());
+            assertEquals("'plain", r.next().description());
+        }
+    }
+
+    @Test
+    void csvInvalidDateFormatPatternIsRejectedUpFront() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> StatementReader.open(
+                new StringReader("date,amount\n2024-01-01,-3\n"), StatementReader.Format.CSV, "yyyy-bb-dd"));
+        assertTrue(e.getMessage().startsWith("Invalid dateFormat"), e.getMessage());
+    }
+
+    @Test
+    void ofxSgmlTransactions() throws IOException {
+        String ofx = "OFXHEADER:100\nDATA:OFXSGML\n\n<OFX><BANKMSGSRSV1><STMTTRNRS><STMTRS><BANKTRANLIST>\n"
+                + "<STMTTRN><TRNTYPE>POS<DTPOSTED>20240310120000.000[-5:EST]<TRNAMT>-12.34<FITID>A1"
+                + "<NAME>Grocer &amp; Co<MEMO>Card 1234</STMTTRN>\n"
+                + "<STMTTRN><TRNTYPE>CREDIT<DTPOSTED>20240311<TRNAMT>100.00<FITID>A2<NAME>Payroll</STMTTRN>\n"
+                + "</BANKTRANLIST></STMTRS></STMTTRNRS></BANKMSGSRSV1></OFX>\n";
+        try (StatementReader r = StatementReader.open(new StringReader(ofx), StatementReader.Format.OFX, null)) {
+            StatementRow grocer = r.next();
+            assertEquals(LocalDateTime.of(2024, 3, 10, 12, 0), grocer.date());
+            assertEquals(12.34, grocer.amount());
+            assertEquals(Expense.ExpenseType.EXPENSE, grocer.type());
+            assertEquals("Grocer & Co - Card 1234", grocer.description());
+            assertEquals("A1", grocer.externalId());
+            assertEquals("card", grocer.paymentType());
+
+            StatementRow payroll = r.next();
+            assertEquals(LocalDateTime.of(2024, 3, 11, 0, 0), payroll.date());
+            assertEquals(Expense.ExpenseType.INCOME, payroll.type());
+            assertNull(r.next());
+        }
+    }
+
+    @Test
+    void formatFollowsTheFileNameUnlessGiven() {
+        assertEquals(StatementReader.Format.OFX, StatementReader.formatOf(null, "March.QFX"));
+        assertEquals(StatementReader.Format.CSV, StatementReader.formatOf("", "march.csv"));
+        assertEquals(StatementReader.Format.OFX, StatementReader.formatOf("ofx", "march.csv"));
+        assertThrows(IllegalArgumentException.class, () -> StatementReader.formatOf("xls", null));
+    }
+}